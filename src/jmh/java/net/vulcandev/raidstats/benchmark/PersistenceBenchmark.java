@@ -0,0 +1,80 @@
+package net.vulcandev.raidstats.benchmark;
+
+import com.google.gson.reflect.TypeToken;
+import net.vulcandev.raidstats.data.RaidBinaryFormat;
+import net.vulcandev.raidstats.objects.RaidStats;
+import net.xantharddev.vulcanlib.libs.DataUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Measures saving and loading raids in the binary format DataManager uses, and in the JSON format used for
+ * import and export.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBenchmark {
+    private static final Type RAIDS_TYPE = new TypeToken<List<RaidStats>>() {}.getType();
+
+    @Param({"2", "10", "50"})
+    private int raids;
+
+    @Param({"10", "100", "300"})
+    private int players;
+
+    private List<RaidStats> raidList;
+    private File raidsFile;
+    private ByteBuffer binaryFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        raidList = RaidFixtures.createRaids(raids, players, 42L);
+        raidsFile = File.createTempFile("raids", ".json");
+        DataUtils.saveToJson(raidsFile, raidList, false);
+        binaryFile = encode();
+    }
+
+    private ByteBuffer encode() {
+        RaidBinaryFormat format = new RaidBinaryFormat();
+        List<byte[]> blocks = new ArrayList<>(raidList.size());
+        for (RaidStats raid : raidList) blocks.add(format.encode(raid));
+        return format.writeFile(blocks);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        raidsFile.delete();
+    }
+
+    @Benchmark
+    public ByteBuffer saveBinary() {
+        return encode();
+    }
+
+    @Benchmark
+    public List<RaidStats> loadBinary() throws IOException {
+        return RaidBinaryFormat.readFile(binaryFile.duplicate(), Logger.getAnonymousLogger());
+    }
+
+    @Benchmark
+    public void saveJson() {
+        DataUtils.saveToJson(raidsFile, raidList, false);
+    }
+
+    @Benchmark
+    public List<RaidStats> loadJson() {
+        return DataUtils.loadFromJson(raidsFile, RAIDS_TYPE, ArrayList::new);
+    }
+}
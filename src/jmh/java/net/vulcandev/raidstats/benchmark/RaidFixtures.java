@@ -0,0 +1,66 @@
+package net.vulcandev.raidstats.benchmark;
+
+import net.vulcandev.raidstats.objects.RaidStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Builds synthetic raids for the benchmarks.
+ * Raids are created without a FactionsKore raid attached, so no server or Factions classes are needed.
+ */
+final class RaidFixtures {
+    private RaidFixtures() {}
+
+    /**
+     * Gets the faction ID used for the raiding side of the given raid.
+     */
+    static String raidingFaction(int raid) {
+        return "raiding-" + raid;
+    }
+
+    /**
+     * Gets the faction ID used for the defending side of the given raid.
+     */
+    static String defendingFaction(int raid) {
+        return "defending-" + raid;
+    }
+
+    /**
+     * Creates player UUIDs from a seeded random so every run uses the same players.
+     */
+    static UUID[] players(int count, Random random) {
+        UUID[] players = new UUID[count];
+        for (int i = 0; i < count; i++) players[i] = new UUID(random.nextLong(), random.nextLong());
+        return players;
+    }
+
+    /**
+     * Creates a raid with the given players split evenly between both factions and random stats.
+     */
+    static RaidStats createRaid(int raid, int players, Random random) {
+        RaidStats raidStats = new RaidStats(raidingFaction(raid), defendingFaction(raid), null);
+        UUID[] uuids = players(players, random);
+        for (int i = 0; i < uuids.length; i++) {
+            String faction = (i & 1) == 0 ? raidStats.getRaidingFaction() : raidStats.getDefendingFaction();
+            raidStats.addKill(faction, uuids[i], random.nextInt(20));
+            raidStats.addDeath(faction, uuids[i], random.nextInt(20));
+            raidStats.addDamageTaken(faction, uuids[i], random.nextDouble() * 500D);
+            raidStats.addDamageGiven(faction, uuids[i], random.nextDouble() * 500D);
+            for (int blocks = random.nextInt(50); blocks > 0; blocks--) raidStats.addBlocksPlaced(faction, uuids[i]);
+        }
+        return raidStats;
+    }
+
+    /**
+     * Creates the given number of raids, each with the given number of players.
+     */
+    static List<RaidStats> createRaids(int raids, int players, long seed) {
+        Random random = new Random(seed);
+        List<RaidStats> list = new ArrayList<>(raids);
+        for (int i = 0; i < raids; i++) list.add(createRaid(i, players, random));
+        return list;
+    }
+}
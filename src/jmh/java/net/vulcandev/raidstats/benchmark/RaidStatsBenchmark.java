@@ -0,0 +1,77 @@
+package net.vulcandev.raidstats.benchmark;
+
+import net.vulcandev.raidstats.objects.PlayerStats;
+import net.vulcandev.raidstats.objects.RaidStatType;
+import net.vulcandev.raidstats.objects.RaidStats;
+import net.vulcandev.raidstats.objects.StatTotals;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-hit cost of updating a raid and the cost of the GUI reads.
+ * Run with -t to simulate several writer threads hitting the same raid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RaidStatsBenchmark {
+    @Param({"10", "100", "300"})
+    private int players;
+
+    private RaidStats raid;
+    private UUID[] uuids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        raid = RaidFixtures.createRaid(0, players, new Random(42L));
+        uuids = RaidFixtures.players(players, new Random(42L));
+    }
+
+    private UUID randomPlayer() {
+        return uuids[ThreadLocalRandom.current().nextInt(uuids.length)];
+    }
+
+    @Benchmark
+    public void addDamageGiven() {
+        raid.addDamageGiven(raid.getRaidingFaction(), randomPlayer(), 1.5D);
+    }
+
+    @Benchmark
+    public void addKill() {
+        raid.addKill(raid.getRaidingFaction(), randomPlayer(), 1);
+    }
+
+    @Benchmark
+    public void updatePlayerStats() {
+        raid.updatePlayerStats(raid.getRaidingFaction(), randomPlayer(), stats -> stats.addDamageGiven(1.5D));
+    }
+
+    @Benchmark
+    public PlayerStats getPlayerStats() {
+        return raid.getPlayerStats(raid.getRaidingFaction(), randomPlayer());
+    }
+
+    @Benchmark
+    public Map<UUID, PlayerStats> getTopStats() {
+        return raid.getTopStats(raid.getRaidingFaction(), RaidStatType.DAMAGE_GIVEN, 10);
+    }
+
+    @Benchmark
+    public StatTotals getTotals() {
+        return raid.getTotals(raid.getRaidingFaction());
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public Map<RaidStatType, Integer> getFactionTotals() {
+        return raid.getFactionTotals(raid.getRaidingFaction());
+    }
+}
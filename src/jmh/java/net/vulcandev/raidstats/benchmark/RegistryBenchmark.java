@@ -0,0 +1,69 @@
+package net.vulcandev.raidstats.benchmark;
+
+import net.vulcandev.raidstats.manager.RaidRegistry;
+import net.vulcandev.raidstats.objects.RaidStats;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the raid lookups the listeners run on every hit.
+ * StatsManager delegates these lookups to its RaidRegistry, which is benchmarked directly
+ * because StatsManager schedules tasks on the server when constructed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistryBenchmark {
+    @Param({"2", "10", "50"})
+    private int raids;
+
+    @Param({"false", "true"})
+    private boolean outpostOwned;
+
+    private RaidRegistry registry;
+    private UUID[] raidIds;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        registry = new RaidRegistry();
+        List<RaidStats> list = RaidFixtures.createRaids(raids, 2, 42L);
+        raidIds = new UUID[list.size()];
+        for (int i = 0; i < list.size(); i++) {
+            registry.add(list.get(i));
+            raidIds[i] = list.get(i).getId();
+        }
+        registry.setOutpostOwner(outpostOwned ? RaidFixtures.defendingFaction(0) : null);
+    }
+
+    private int randomRaid() {
+        return ThreadLocalRandom.current().nextInt(raids);
+    }
+
+    @Benchmark
+    public RaidStats getById() {
+        return registry.getById(raidIds[randomRaid()]);
+    }
+
+    @Benchmark
+    public RaidStats getDefending() {
+        return registry.getDefending(RaidFixtures.defendingFaction(randomRaid()));
+    }
+
+    @Benchmark
+    public List<RaidStats> getBetween() {
+        int raid = randomRaid();
+        return registry.getBetween(RaidFixtures.defendingFaction(raid), RaidFixtures.raidingFaction(raid));
+    }
+
+    @Benchmark
+    public RaidStats missingPair() {
+        return registry.getByPair("unknown", RaidFixtures.defendingFaction(randomRaid()));
+    }
+}
@@ -7,11 +7,25 @@ import lombok.Getter;
 import me.plugin.libs.YamlDocument;
 import net.vulcandev.raidstats.command.ViewRaidCommand;
 import net.vulcandev.raidstats.data.DataManager;
+import net.vulcandev.raidstats.gui.RaidGUIRefresher;
+import net.vulcandev.raidstats.gui.RaidGUIRenderer;
 import net.vulcandev.raidstats.integration.FactionsKoreRaidTimer;
+import net.vulcandev.raidstats.listener.ClaimCacheListener;
 import net.vulcandev.raidstats.listener.CommandListener;
+import net.vulcandev.raidstats.listener.FactionCacheListener;
+import net.vulcandev.raidstats.listener.NameCacheListener;
 import net.vulcandev.raidstats.listener.RaidEventListener;
 import net.vulcandev.raidstats.listener.StatsListener;
+import net.vulcandev.raidstats.manager.ClaimCache;
+import net.vulcandev.raidstats.manager.FactionCache;
+import net.vulcandev.raidstats.manager.LifetimeManager;
+import net.vulcandev.raidstats.manager.NameCache;
+import net.vulcandev.raidstats.manager.RaidCompletions;
+import net.vulcandev.raidstats.manager.RaidExpiryManager;
+import net.vulcandev.raidstats.manager.RaidListing;
+import net.vulcandev.raidstats.manager.RaidReconciler;
 import net.vulcandev.raidstats.manager.StatsManager;
+import net.vulcandev.raidstats.pipeline.StatsPipeline;
 import net.vulcandev.vulcanloader.loader.VulcanPlugin;
 import net.xantharddev.vulcanlib.ConfigFile;
 import net.xantharddev.vulcanlib.Logger;
@@ -24,6 +38,7 @@ import org.bukkit.Bukkit;
  */
 public final class VulcanRaidStats extends VulcanPlugin {
     // Handles saving and loading of raid data to disk
+    @Getter
     private DataManager dataManager;
 
     // Integration wrapper for FactionsKore raid timers and grace periods
@@ -34,6 +49,50 @@ public final class VulcanRaidStats extends VulcanPlugin {
     @Getter
     private RaidingOutpostFeature raidingOutpost;
 
+    // Lifetime stat totals per player and faction over every finished raid
+    @Getter
+    private LifetimeManager lifetimeManager;
+
+    // Purge deadlines of raids in grace
+    @Getter
+    private RaidExpiryManager expiryManager;
+
+    // Keeps the tracked raids in step with FactionsKore
+    @Getter
+    private RaidReconciler reconciler;
+
+    // Batches stat events from the listeners and applies them asynchronously
+    @Getter
+    private StatsPipeline statsPipeline;
+
+    // Player names for rankings, looked up without blocking
+    @Getter
+    private NameCache nameCache;
+
+    // Parsed GUI layout and cached raid GUI renders
+    @Getter
+    private RaidGUIRenderer guiRenderer;
+
+    // Keeps open raid GUIs up to date
+    @Getter
+    private RaidGUIRefresher guiRefresher;
+
+    // Tab completions for /viewraid
+    @Getter
+    private RaidCompletions raidCompletions;
+
+    // Precomputed raid listings for the intercepted raid commands
+    @Getter
+    private RaidListing raidListing;
+
+    // Cached player -> faction lookups for combat tracking
+    @Getter
+    private FactionCache factionCache;
+
+    // Cached chunk ownership for block tracking
+    @Getter
+    private ClaimCache claimCache;
+
     // Plugin configuration file
     private YamlDocument conf;
 
@@ -46,9 +105,33 @@ public final class VulcanRaidStats extends VulcanPlugin {
     @Override
     public void onSecureEnable() {
         conf = ConfigFile.createConfig(this, "config.yml");
+        nameCache = new NameCache(this, getDataFolder());
+        nameCache.start();
+        Bukkit.getPluginManager().registerEvents(new NameCacheListener(nameCache), this);
+        guiRenderer = new RaidGUIRenderer(conf, nameCache);
+        guiRefresher = new RaidGUIRefresher(this);
+        guiRefresher.start();
         StatsManager statsManager = new StatsManager(this);
-        Bukkit.getPluginManager().registerEvents(new StatsListener(this, statsManager), this);
-        Bukkit.getPluginManager().registerEvents(new RaidEventListener(this, statsManager), this);
+        factionCache = new FactionCache();
+        Bukkit.getPluginManager().registerEvents(new FactionCacheListener(this, factionCache), this);
+        claimCache = new ClaimCache(conf.getInt("claim-cache.max-chunks", 65536));
+        Bukkit.getPluginManager().registerEvents(new ClaimCacheListener(this, claimCache), this);
+        // Opened before the pipeline so every stat change is journaled, raids are loaded once the raid timer is set up
+        dataManager = new DataManager(getDataFolder(), statsManager, this);
+        lifetimeManager = new LifetimeManager(this, getDataFolder());
+        lifetimeManager.load(dataManager.getStorage());
+        lifetimeManager.start();
+        raidCompletions = new RaidCompletions(this, statsManager);
+        raidCompletions.loadArchived();
+        statsPipeline = new StatsPipeline(this, statsManager, dataManager.getJournal());
+        statsPipeline.start();
+        expiryManager = new RaidExpiryManager(this, statsManager);
+        expiryManager.start();
+        reconciler = new RaidReconciler(this, statsManager);
+        Bukkit.getPluginManager().registerEvents(new StatsListener(this, statsManager, statsPipeline), this);
+        Bukkit.getPluginManager().registerEvents(new RaidEventListener(this), this);
+        raidListing = new RaidListing(this, statsManager);
+        raidListing.start();
         Bukkit.getPluginManager().registerEvents(new CommandListener(this, statsManager), this);
         ViewRaidCommand.create(this, statsManager).register(this);
         setupRaidTimer(statsManager);
@@ -68,8 +151,18 @@ public final class VulcanRaidStats extends VulcanPlugin {
                 outpost = FactionsKore.get().getFeature(RaidClaimFeature.class);
             }
             raidTimer = new FactionsKoreRaidTimer(outpost);
-            dataManager = new DataManager(getDataFolder(), statsManager, this);
-            dataManager.loadAllRaids();
+
+            // Loading reads and archives raids on disk, so only the timers are started back on the main thread.
+            // Until it is done stats wait in the pipeline's queue and raid starts are left to the drift check
+            getServer().getScheduler().runTaskAsynchronously(this, () -> {
+                dataManager.loadAllRaids();
+                // Links the loaded raids and picks up raids started while the plugin was disabled
+                reconciler.reconcile();
+                getServer().getScheduler().runTask(this, () -> {
+                    reconciler.start();
+                    dataManager.startCheckpoints();
+                });
+            });
         }, 40L);
     }
 
@@ -79,6 +172,14 @@ public final class VulcanRaidStats extends VulcanPlugin {
      */
     @Override
     public void onSecureDisable() {
+        // Apply any queued stats before they are saved, purges due while stopping happen on the next start
+        expiryManager.stop();
+        reconciler.stop();
+        guiRefresher.stop();
+        raidListing.stop();
+        statsPipeline.stop();
         dataManager.saveAllRaids();
+        lifetimeManager.stop();
+        nameCache.stop();
     }
 }
@@ -1,19 +1,26 @@
 package net.vulcandev.raidstats.command;
 
-import net.vulcandev.raidstats.gui.RaidGUI;
+import com.massivecraft.factions.Faction;
+import com.massivecraft.factions.Factions;
+import net.vulcandev.raidstats.data.ArchivedRaid;
 import net.vulcandev.raidstats.manager.StatsManager;
 import net.vulcandev.raidstats.objects.RaidStats;
 import net.xantharddev.vulcanlib.command.VulcanCommand;
 import net.xantharddev.vulcanlib.command.args.ArgumentType;
 import net.xantharddev.vulcanlib.command.args.CommandArgument;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.logging.Level;
 
 /**
  * Command that allows players to view detailed raid statistics via a GUI.
- * Usage: /viewraid <raidUUID>
+ * Finished raids are opened from the archive, and a faction tag opens that faction's current or latest raid.
+ * Usage: /viewraid <raidUUID|factionTag>
  */
 public class ViewRaidCommand {
     /**
@@ -28,43 +35,110 @@ public class ViewRaidCommand {
                 .description("View raid statistics")
                 .alias("vr", "raidstats")
                 .playerOnly()
-                .argument(CommandArgument.of("raidUUID", ArgumentType.STRING)
-                        .description("The UUID of the raid to view")
-                        .validator(input -> {
-                            try {
-                                UUID.fromString(input);
-                                return true;
-                            } catch (IllegalArgumentException e) {
-                                return false;
-                            }
-                        })
+                .argument(CommandArgument.of("raid", ArgumentType.STRING)
+                        .description("The UUID of the raid or the tag of a faction to view")
                         .required()
-                        .completer((sender, partial) ->
-                                statsManager.getAllRaids().stream()
-                                        .map(raid -> raid.getId().toString())
-                                        .filter(uuid -> uuid.toLowerCase().startsWith(partial.toLowerCase()))
-                                        .collect(Collectors.toList())
-                        )
+                        .completer((sender, partial) -> plugin.getRaidCompletions().complete(partial))
                         .build())
                 .execute((sender, ctx) -> {
                     Player player = (Player) sender;
-                    String uuidString = ctx.getString("raidUUID", "");
+                    String input = ctx.getString("raid", "");
 
-                    try {
-                        UUID raidUUID = UUID.fromString(uuidString);
-                        RaidStats raid = statsManager.getRaidByUUID(raidUUID);
-
-                        if (raid == null) {
-                            player.sendMessage("§cRaid not found for the given UUID.");
-                            return;
-                        }
+                    UUID raidUUID = parseUUID(input);
+                    if (raidUUID == null) {
+                        openFaction(plugin, statsManager, player, input);
+                        return;
+                    }
 
-                        new RaidGUI(plugin, raid, player).open();
-                    } catch (IllegalArgumentException e) {
-                        player.sendMessage("§cInvalid UUID format. Please check the UUID and try again.");
+                    RaidStats raid = statsManager.getRaidByUUID(raidUUID);
+                    if (raid != null) {
+                        plugin.getGuiRefresher().open(raid, player);
+                        return;
                     }
+
+                    openArchived(plugin, player, raidUUID);
                 })
                 .build();
     }
+
+    /**
+     * Parses a raid UUID, or returns null if the input is not one.
+     */
+    private static UUID parseUUID(String input) {
+        try {
+            return UUID.fromString(input);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Opens the current raid of the faction with a tag, or its latest archived raid if it is in none.
+     */
+    private static void openFaction(net.vulcandev.raidstats.VulcanRaidStats plugin, StatsManager statsManager, Player player, String tag) {
+        Faction faction = Factions.getInstance().getByTag(tag);
+        if (faction == null) {
+            player.sendMessage("§cNo raid or faction found for '" + tag + "'.");
+            return;
+        }
+
+        RaidStats raid = statsManager.getCurrentRaid(faction.getId());
+        if (raid != null) {
+            plugin.getGuiRefresher().open(raid, player);
+            return;
+        }
+
+        String factionId = faction.getId();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<ArchivedRaid> archived;
+            String error;
+            try {
+                // Newest first
+                archived = plugin.getDataManager().getStorage().getArchivedByFaction(factionId, 0L, Long.MAX_VALUE);
+                error = "§c" + faction.getTag() + " has not been in a raid.";
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to look up archived raids of faction " + factionId, e);
+                archived = Collections.emptyList();
+                error = "§cFailed to load the archived raid.";
+            }
+
+            if (!archived.isEmpty()) {
+                openArchived(plugin, player, archived.get(0).getId());
+                return;
+            }
+            String message = error;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (player.isOnline()) player.sendMessage(message);
+            });
+        });
+    }
+
+    /**
+     * Reads a finished raid from the storage off the main thread, then opens its GUI.
+     */
+    private static void openArchived(net.vulcandev.raidstats.VulcanRaidStats plugin, Player player, UUID raidUUID) {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            RaidStats archived;
+            boolean failed = false;
+            try {
+                archived = plugin.getDataManager().getStorage().loadArchived(raidUUID);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to read archived raid " + raidUUID, e);
+                archived = null;
+                failed = true;
+            }
+
+            RaidStats raid = archived;
+            boolean loadFailed = failed;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (!player.isOnline()) return;
+                if (raid == null) {
+                    player.sendMessage(loadFailed ? "§cFailed to load the archived raid." : "§cRaid not found for the given UUID.");
+                    return;
+                }
+                plugin.getGuiRefresher().open(raid, player);
+            });
+        });
+    }
 }
 
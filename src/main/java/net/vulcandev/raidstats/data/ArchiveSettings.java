@@ -0,0 +1,34 @@
+package net.vulcandev.raidstats.data;
+
+import lombok.Getter;
+import me.plugin.libs.YamlDocument;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Archive options shared by every storage backend.
+ */
+@Getter
+public final class ArchiveSettings {
+    // Size at which an archive segment file is sealed, only used by the file backend
+    private final long segmentBytes;
+    private final boolean compress;
+    // How long archived raids are kept after they ended, 0 to keep them forever
+    private final long retentionMillis;
+
+    public ArchiveSettings(long segmentBytes, boolean compress, long retentionMillis) {
+        this.segmentBytes = segmentBytes;
+        this.compress = compress;
+        this.retentionMillis = retentionMillis;
+    }
+
+    /**
+     * Reads the archive section of the config.
+     */
+    public static ArchiveSettings fromConfig(YamlDocument config) {
+        return new ArchiveSettings(
+                config.getInt("archive.segment-kb", 1024) * 1024L,
+                config.getBoolean("archive.compress", true),
+                TimeUnit.DAYS.toMillis(config.getInt("archive.retention-days", 30)));
+    }
+}
@@ -0,0 +1,33 @@
+package net.vulcandev.raidstats.data;
+
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Index data of one archived raid, enough to list it without reading its stats.
+ */
+@Getter
+public class ArchivedRaid {
+    private final UUID id;
+    private final String raidingFaction;
+    private final String defendingFaction;
+    private final long endTime;
+    // Increases with every archived raid, used to find raids archived after a known point
+    private final long position;
+
+    public ArchivedRaid(UUID id, String raidingFaction, String defendingFaction, long endTime, long position) {
+        this.id = id;
+        this.raidingFaction = raidingFaction;
+        this.defendingFaction = defendingFaction;
+        this.endTime = endTime;
+        this.position = position;
+    }
+
+    /**
+     * Checks if a faction took part in the raid.
+     */
+    public boolean involves(String factionId) {
+        return raidingFaction.equals(factionId) || defendingFaction.equals(factionId);
+    }
+}
@@ -1,24 +1,69 @@
 package net.vulcandev.raidstats.data;
 
 import com.google.gson.reflect.TypeToken;
+import lombok.Getter;
 import net.vulcandev.raidstats.manager.StatsManager;
 import net.vulcandev.raidstats.objects.RaidStats;
+import net.vulcandev.raidstats.objects.StatsColumns;
 import net.xantharddev.vulcanlib.libs.DataUtils;
 import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
 
 /**
- * Handles persistent storage of raid data to disk.
- * Saves and loads raids from JSON format, preserving stats across server restarts.
+ * Handles persistent storage of raid data.
+ * Raids are saved through a {@link RaidStorage} backend chosen in the config: plain files
+ * ({@link FileRaidStorage}) or an embedded SQLite database ({@link SqliteRaidStorage}), which imports the
+ * files on first start. Startup lists the saved raids first, archives raids whose grace already expired and
+ * loads the remaining raids in parallel. A raids.json file (the old save format) or a single raids.dat file in
+ * the data folder is imported on load, and raids can be exported to JSON on shutdown for debugging.
+ * While running, raids are checkpointed on an async timer: only raids modified since the last checkpoint are
+ * encoded and written. Changes between checkpoints are kept in a {@link StatJournal} that is replayed on
+ * load, and a checkpoint is taken early once the journal grows past its size threshold.
+ * Finished raids are moved to the backend's archive, including raids whose grace ended while the server was
+ * offline.
  */
 public class DataManager {
-    private final File raidsFile;
+    // Imported on load, the first is the save file of older versions
+    private final File jsonFile;
+    private final File legacyFile;
+    private final File exportFile;
     private final StatsManager statsManager;
     private final net.vulcandev.raidstats.VulcanRaidStats plugin;
+    @Getter
+    private final StatJournal journal;
+    @Getter
+    private final RaidStorage storage;
+    // Held while archiving, so raids are merged into the lifetime stats in archive order
+    private final Object archiveLock = new Object();
+    // Raid UUID -> version written at the last checkpoint, only touched while holding this manager's lock
+    private final Map<UUID, Long> saved = new HashMap<>();
+    private BukkitTask checkpointTask;
+    // Next time a checkpoint is due, only read by the checkpoint task
+    private long nextCheckpoint;
+    // Checkpoints before loading would replace the saved raids and drop the journal
+    private volatile boolean loaded;
+    // The saved raids differ from the loaded ones, the next checkpoint writes even if no raid changed
+    private volatile boolean forceWrite;
+    // The saved raids could not be listed, checkpoints would delete them so they are skipped until a restart
+    private volatile boolean unlisted;
+    // File the raids were imported from, renamed once the shards are written
+    private volatile File importedFile;
+
+    // Stats of the last checkpoint that wrote the file
+    private volatile long lastCheckpointNanos;
+    private volatile int lastSerializedRaids;
+    private volatile long lastWrittenBytes;
 
     public DataManager(File dataFolder, StatsManager statsManager, net.vulcandev.raidstats.VulcanRaidStats plugin) {
         this.statsManager = statsManager;
@@ -28,7 +73,9 @@ public class DataManager {
         }
 
         File dataFolder1 = new File(dataFolder, "data");
-        this.raidsFile = new File(dataFolder1, "raids.json");
+        this.jsonFile = new File(dataFolder1, "raids.json");
+        this.legacyFile = new File(dataFolder1, "raids.dat");
+        this.exportFile = new File(dataFolder1, "raids-export.json");
 
         if (!dataFolder1.exists()) {
             boolean created = dataFolder1.mkdirs();
@@ -36,48 +83,285 @@ public class DataManager {
                 throw new RuntimeException("Failed to create 'data' folder at: " + dataFolder1.getPath());
             }
         }
+
+        try {
+            this.journal = new StatJournal(dataFolder1, "raids-", plugin.conf().getInt("persistence.journal-flush-ms", 1000), plugin.getLogger());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open the stat journal in: " + dataFolder1.getPath(), e);
+        }
+
+        try {
+            this.storage = openStorage(dataFolder1);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open the raid storage in: " + dataFolder1.getPath(), e);
+        }
     }
 
     /**
-     * Saves all active raids to JSON file.
-     * Called during plugin shutdown to preserve raid data.
+     * Opens the storage backend set in the config, moving raids saved to files into a new database.
+     */
+    private RaidStorage openStorage(File dataFolder) throws IOException {
+        ArchiveSettings archiveSettings = ArchiveSettings.fromConfig(plugin.conf());
+        String type = plugin.conf().getString("storage.type", "FILE");
+        if (!type.equalsIgnoreCase("SQLITE")) {
+            if (!type.equalsIgnoreCase("FILE")) plugin.getLogger().warning("Unknown storage type " + type + ", using FILE");
+            return new FileRaidStorage(dataFolder, archiveSettings, plugin.getLogger());
+        }
+
+        File databaseFile = new File(dataFolder, plugin.conf().getString("storage.sqlite.file", "raids.db"));
+        SqliteRaidStorage database = new SqliteRaidStorage(databaseFile, plugin.conf().getInt("storage.sqlite.pool-size", 3),
+                archiveSettings, plugin.getLogger());
+        if (FileRaidStorage.exists(dataFolder)) {
+            FileRaidStorage files = new FileRaidStorage(dataFolder, archiveSettings, plugin.getLogger());
+            boolean imported;
+            try {
+                imported = database.importFrom(files);
+            } finally {
+                files.close();
+            }
+            if (imported) {
+                // Kept as a backup, renamed so they are not imported again
+                for (String name : new String[]{"raids", "archive"}) {
+                    File folder = new File(dataFolder, name);
+                    if (!folder.renameTo(new File(dataFolder, name + ".imported"))) {
+                        plugin.getLogger().warning("Failed to rename data/" + name + " after importing it");
+                    }
+                }
+            }
+        }
+        return database;
+    }
+
+    /**
+     * Starts the periodic async checkpoint task.
+     * Must be called after {@link #loadAllRaids()}, otherwise the first checkpoint would overwrite the saved raids.
+     */
+    public void startCheckpoints() {
+        long intervalMillis = Math.max(1, plugin.conf().getInt("persistence.checkpoint-seconds", 60)) * 1000L;
+        long compactBytes = plugin.conf().getInt("persistence.journal-compact-kb", 4096) * 1024L;
+        nextCheckpoint = System.currentTimeMillis() + intervalMillis;
+
+        // Checked every second so a large journal is compacted without waiting for the interval
+        checkpointTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
+            long now = System.currentTimeMillis();
+            if (now < nextCheckpoint && journal.getLength() < compactBytes) return;
+
+            nextCheckpoint = now + intervalMillis;
+            try {
+                checkpoint(true);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to checkpoint raids", e);
+            }
+        }, 20L, 20L);
+    }
+
+    /**
+     * Saves all active raids to disk, and to JSON as well if enabled in the config.
+     * Called during plugin shutdown to preserve raid data, stops the checkpoint task and writes without the I/O budget.
      */
     public void saveAllRaids() {
-        DataUtils.saveToJson(raidsFile, statsManager.getAllRaids(), false);
+        if (checkpointTask != null) {
+            checkpointTask.cancel();
+            checkpointTask = null;
+        }
+
+        try {
+            checkpoint(false);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to save raids", e);
+        }
+
+        try {
+            journal.close();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to close the stat journal", e);
+        }
+
+        try {
+            storage.close();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to close the raid storage", e);
+        }
+
+        if (loaded && plugin.conf().getBoolean("persistence.export-json", false)) {
+            DataUtils.saveToJson(exportFile, statsManager.getAllRaids(), false);
+        }
+    }
+
+    /**
+     * Saves the raids changed since the last checkpoint to the storage, which drops raids no longer tracked,
+     * then deletes the journal segments the saved raids include. Skipped if the saved raids could not be listed
+     * on startup.
+     *
+     * @param throttle Whether to limit the write speed to the configured I/O budget
+     * @return true if anything was written
+     */
+    public synchronized boolean checkpoint(boolean throttle) throws IOException {
+        if (!loaded || unlisted) return false;
+
+        long start = System.nanoTime();
+        Capture capture = plugin.getStatsPipeline().callExclusive(this::capture);
+        if (capture.failure != null) throw capture.failure;
+        if (capture.active == null) return false;
+
+        long bytesPerSecond = throttle ? plugin.conf().getInt("persistence.io-budget-kb", 0) * 1024L : 0L;
+        long written = storage.saveActive(capture.active, capture.shards, bytesPerSecond);
+        journal.deleteBefore(capture.segment);
+
+        saved.clear();
+        saved.putAll(capture.versions);
+        forceWrite = false;
+        if (importedFile != null) {
+            Files.move(importedFile.toPath(), new File(importedFile.getParentFile(), importedFile.getName() + ".imported").toPath(), StandardCopyOption.REPLACE_EXISTING);
+            importedFile = null;
+        }
+
+        int serialized = capture.shards.size();
+        lastCheckpointNanos = System.nanoTime() - start;
+        lastSerializedRaids = serialized;
+        lastWrittenBytes = written;
+
+        int slowMillis = plugin.conf().getInt("persistence.slow-checkpoint-ms", 500);
+        if (TimeUnit.NANOSECONDS.toMillis(lastCheckpointNanos) > slowMillis) {
+            plugin.getLogger().warning("Raid checkpoint took " + TimeUnit.NANOSECONDS.toMillis(lastCheckpointNanos) + "ms ("
+                    + serialized + "/" + capture.versions.size() + " raids serialized, " + written + " bytes)");
+        }
+        return true;
+    }
+
+    /**
+     * Encodes the raids changed since the last checkpoint and lists the tracked raids, and starts a new journal segment.
+     * Runs while the pipeline applies no changes, so the encoded raids include exactly the journal segments
+     * before the new one.
+     */
+    private Capture capture() {
+        List<RaidStats> raids = statsManager.getAllRaids();
+        boolean changed = forceWrite || raids.size() != saved.size();
+        for (RaidStats raid : raids) {
+            Long previous = saved.get(raid.getId());
+            if (previous == null || previous != raid.getVersion()) {
+                changed = true;
+                break;
+            }
+        }
+        if (!changed) return new Capture();
+
+        Capture capture = new Capture();
+        try {
+            capture.segment = journal.rotate();
+        } catch (IOException e) {
+            capture.failure = e;
+            return capture;
+        }
+
+        List<RaidManifest.Entry> entries = new ArrayList<>(raids.size());
+        for (RaidStats raid : raids) {
+            entries.add(new RaidManifest.Entry(raid));
+            Long previous = saved.get(raid.getId());
+            long version = raid.getVersion();
+            capture.versions.put(raid.getId(), version);
+            if (previous != null && previous == version) continue;
+
+            raid.setJournalSegment(capture.segment - 1);
+            capture.shards.put(raid.getId(), encodeShard(raid));
+        }
+        capture.active = entries;
+        return capture;
+    }
+
+    /**
+     * Encodes a raid on its own, with a string table holding only its factions.
+     */
+    private static ByteBuffer encodeShard(RaidStats raid) {
+        RaidBinaryFormat format = new RaidBinaryFormat();
+        return format.writeFile(Collections.singletonList(format.encode(raid)));
     }
 
     /**
-     * Loads all raids from JSON file on server startup.
-     * Attempts to reattach raids to active FactionsKore raids and schedules grace period cleanup.
+     * Moves a raid that ended to the archive and adds it to the lifetime stats.
+     * Does disk I/O, so it should not be called on the main thread.
+     *
+     * @return true if the raid is in the archive, false if archiving it failed
+     */
+    public boolean archiveRaid(RaidStats raid, long endTime) {
+        try {
+            // Merged in archive order, so the lifetime stats know which archived raids they include
+            synchronized (archiveLock) {
+                ArchivedRaid archived = storage.archive(raid, endTime);
+                if (archived != null) {
+                    plugin.getLifetimeManager().merge(raid, archived);
+                    plugin.getRaidCompletions().addArchived(archived);
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to archive raid " + raid.getId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Checks if the saved raids were loaded, raids started or changed before then would clash with them.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Gets how long the last checkpoint that wrote anything took, in nanoseconds.
+     */
+    public long getLastCheckpointNanos() {
+        return lastCheckpointNanos;
+    }
+
+    /**
+     * Gets how many raids the last checkpoint that wrote anything had to serialize.
+     */
+    public int getLastSerializedRaids() {
+        return lastSerializedRaids;
+    }
+
+    /**
+     * Gets the number of bytes written by the last checkpoint that wrote anything.
+     */
+    public long getLastWrittenBytes() {
+        return lastWrittenBytes;
+    }
+
+    /**
+     * Loads all raids from disk on server startup and replays the stat journal on top of them.
+     * Schedules grace period cleanup, raids are linked to FactionsKore's raids by the {@link net.vulcandev.raidstats.manager.RaidReconciler}.
+     * Reads the storage and archives raids whose grace ended, so it should not be called on the main thread.
      */
     public void loadAllRaids() {
-        // Load all raids from the single JSON file
-        Type type = new TypeToken<List<RaidStats>>() {}.getType();
-        List<RaidStats> raidsList = DataUtils.loadFromJson(raidsFile, type, ArrayList::new);
+        Map<UUID, RaidStats> byId = new LinkedHashMap<>();
+        for (RaidStats raidStats : readSnapshot()) byId.put(raidStats.getId(), raidStats);
 
-        if (raidsList != null && !raidsList.isEmpty()) {
-            for (RaidStats raidStats : raidsList) {
-                String raidingFaction = raidStats.getRaidingFaction();
-                String defendingFaction = raidStats.getDefendingFaction();
+        // Raids the journal does not change are identical to their shard and need no rewrite
+        Map<UUID, Long> loadedVersions = new HashMap<>();
+        for (RaidStats raidStats : byId.values()) loadedVersions.put(raidStats.getId(), raidStats.getVersion());
+        int replayed = journal.replay(byId);
+        if (replayed > 0) plugin.getLogger().info("Replayed " + replayed + " stat journal records");
+        List<RaidStats> raidsList = new ArrayList<>(byId.values());
 
-                // Try to attach to active raid
-                plugin.getRaidTimer().getActiveRaids().stream()
-                        .filter(raid -> raid.getRaided().equals(defendingFaction) && raid.getFaction().equals(raidingFaction))
-                        .findAny()
-                        .ifPresent(raidStats::setKoreRaid);
+        if (!raidsList.isEmpty()) {
+            for (RaidStats raidStats : raidsList) {
+                // Archived right before a crash, the end of a raid is journaled after it is archived
+                if (isArchived(raidStats.getId())) {
+                    forceWrite = true;
+                    continue;
+                }
 
-                // If in grace period and has a valid purgeTime, schedule the purge task
+                // If in grace period and has a valid purgeTime, schedule its purge
                 if (raidStats.isGrace()) {
-                    long currentTime = System.currentTimeMillis();
                     long purgeTime = raidStats.getPurgeTime();
 
-                    if (purgeTime > currentTime) {
-                        long delayMillis = purgeTime - currentTime;
-                        long delayTicks = delayMillis / 50L;
-
-                        Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, () -> statsManager.removeRaid(raidingFaction, defendingFaction), delayTicks);
+                    if (purgeTime > System.currentTimeMillis()) {
+                        plugin.getExpiryManager().schedule(raidStats);
                     } else {
-                        // Grace period expired, don't load this raid
+                        // Grace period expired, archive this raid instead of loading it and drop it from the manifest
+                        archiveRaid(raidStats, purgeTime);
+                        forceWrite = true;
                         continue;
                     }
                 }
@@ -85,6 +369,109 @@ public class DataManager {
                 statsManager.addRaid(raidStats);
             }
         }
+
+        for (RaidStats raidStats : statsManager.getAllRaids()) {
+            Long version = loadedVersions.get(raidStats.getId());
+            if (importedFile == null && version != null && version == raidStats.getVersion()) {
+                saved.put(raidStats.getId(), version);
+            }
+        }
+        if (replayed > 0) forceWrite = true;
+        loaded = true;
+
+        // Rankings of raids restored after a restart mostly show players who are offline
+        Set<UUID> participants = new HashSet<>();
+        for (RaidStats raidStats : statsManager.getAllRaids()) {
+            for (String faction : raidStats.getFactions()) {
+                StatsColumns columns = raidStats.getColumns(faction);
+                for (int row = 0; row < columns.size(); row++) participants.add(columns.uuidAt(row));
+            }
+        }
+        plugin.getNameCache().prefetch(participants);
+    }
+
+    /**
+     * Reads the saved raids, importing raids.json or raids.dat instead if either exists.
+     * Raids whose grace period already ended are archived, or skipped without loading them once they are in the
+     * archive, and the other raids are loaded in parallel.
+     */
+    private List<RaidStats> readSnapshot() {
+        if (jsonFile.exists()) {
+            Type type = new TypeToken<List<RaidStats>>() {}.getType();
+            List<RaidStats> imported = DataUtils.loadFromJson(jsonFile, type, ArrayList::new);
+            return imported(jsonFile, imported == null ? Collections.emptyList() : imported);
+        }
+        if (legacyFile.exists()) {
+            try {
+                return imported(legacyFile, RaidBinaryFormat.readFile(ByteBuffer.wrap(Files.readAllBytes(legacyFile.toPath())), plugin.getLogger()));
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to import raids from " + legacyFile.getName(), e);
+                moveAside(legacyFile);
+                return Collections.emptyList();
+            }
+        }
+        List<RaidManifest.Entry> entries;
+        try {
+            entries = storage.listActive();
+        } catch (IOException e) {
+            // Saving now would replace the raids that could not be read, the journal keeps the new changes meanwhile
+            plugin.getLogger().log(Level.SEVERE, "Failed to list the saved raids, raids will not be saved until a restart", e);
+            unlisted = true;
+            return Collections.emptyList();
+        }
+
+        long now = System.currentTimeMillis();
+        List<RaidManifest.Entry> live = entries.stream().filter(entry -> !entry.isExpired(now)).collect(Collectors.toList());
+        if (live.size() != entries.size()) forceWrite = true;
+
+        // Grace ended while the server was offline, the journal cannot change a raid in grace
+        for (RaidManifest.Entry entry : entries) {
+            if (!entry.isExpired(now) || isArchived(entry.getId())) continue;
+            RaidStats raid = storage.loadActive(entry);
+            if (raid != null) archiveRaid(raid, entry.getPurgeTime());
+        }
+
+        List<RaidStats> raids = live.parallelStream()
+                .map(storage::loadActive)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (raids.size() != live.size()) forceWrite = true;
+        return raids;
+    }
+
+    /**
+     * Checks if a raid is in the archive, assuming it is not if the storage cannot tell since archiving skips
+     * raids it already holds.
+     */
+    private boolean isArchived(UUID raidId) {
+        try {
+            return storage.isArchived(raidId);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to check if raid " + raidId + " is archived", e);
+            return false;
+        }
     }
 
-}
\ No newline at end of file
+    private List<RaidStats> imported(File file, List<RaidStats> raids) {
+        plugin.getLogger().info("Importing " + raids.size() + " raids from " + file.getName());
+        importedFile = file;
+        forceWrite = true;
+        return raids;
+    }
+
+    private void moveAside(File file) {
+        File corrupt = new File(file.getParentFile(), file.getName() + ".corrupt");
+        if (!file.renameTo(corrupt)) plugin.getLogger().warning("Failed to move " + file.getName() + " to " + corrupt.getName());
+    }
+
+    /**
+     * Raids captured for a checkpoint, with the active list left null if nothing changed.
+     */
+    private static final class Capture {
+        private final Map<UUID, Long> versions = new HashMap<>();
+        private final Map<UUID, ByteBuffer> shards = new LinkedHashMap<>();
+        private List<RaidManifest.Entry> active;
+        private long segment;
+        private IOException failure;
+    }
+}
@@ -0,0 +1,244 @@
+package net.vulcandev.raidstats.data;
+
+import net.vulcandev.raidstats.objects.RaidStats;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Storage backend keeping raids in plain files.
+ * Each active raid is saved to its own shard in data/raids/, next to a {@link RaidManifest} listing every
+ * raid's factions and purge time. Shards are written through a temp file and an atomic rename, and the
+ * manifest is written last so a crash mid save leaves the previous manifest in place. A missing or corrupt
+ * manifest is rebuilt from the shards, which hold everything it lists. Finished raids go to the
+ * {@link RaidArchive} in data/archive/.
+ */
+public class FileRaidStorage implements RaidStorage {
+    // Size of each write when the I/O budget is enforced
+    private static final int WRITE_CHUNK = 64 * 1024;
+    private static final String SHARD_SUFFIX = ".dat";
+
+    private final File raidsFolder;
+    private final File manifestFile;
+    private final RaidArchive archive;
+    private final Logger logger;
+
+    /**
+     * Opens the storage, creating its folders if needed.
+     *
+     * @param dataFolder The plugin's data/ folder
+     */
+    public FileRaidStorage(File dataFolder, ArchiveSettings archiveSettings, Logger logger) throws IOException {
+        this.raidsFolder = new File(dataFolder, "raids");
+        this.manifestFile = new File(raidsFolder, "manifest.bin");
+        this.logger = logger;
+
+        File archiveFolder = new File(dataFolder, "archive");
+        for (File folder : new File[]{raidsFolder, archiveFolder}) {
+            if (!folder.exists() && !folder.mkdirs()) throw new IOException("Failed to create folder at: " + folder.getPath());
+        }
+        this.archive = new RaidArchive(archiveFolder, archiveSettings, logger);
+    }
+
+    /**
+     * Checks if raids were ever saved to files in a data folder.
+     */
+    public static boolean exists(File dataFolder) {
+        return new File(new File(dataFolder, "raids"), "manifest.bin").exists()
+                || new File(dataFolder, "archive").isDirectory();
+    }
+
+    @Override
+    public List<RaidManifest.Entry> listActive() throws IOException {
+        if (!manifestFile.exists()) return rebuildManifest();
+
+        try {
+            return RaidManifest.read(readFile(manifestFile));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to read the raid manifest, rebuilding it from the shards", e);
+            moveAside(manifestFile);
+            return rebuildManifest();
+        }
+    }
+
+    /**
+     * Lists the raids from their shards, for when the manifest is missing or corrupt.
+     * Shards left behind by raids that already ended are listed as well, loading drops them as archived.
+     */
+    private List<RaidManifest.Entry> rebuildManifest() throws IOException {
+        File[] shards = raidsFolder.listFiles((dir, name) -> name.endsWith(SHARD_SUFFIX));
+        if (shards == null) throw new IOException("Failed to list the raid shards in " + raidsFolder.getPath());
+
+        List<RaidManifest.Entry> entries = new ArrayList<>(shards.length);
+        for (File shard : shards) {
+            try {
+                for (RaidStats raid : RaidBinaryFormat.readFile(readFile(shard), logger)) entries.add(new RaidManifest.Entry(raid));
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to read shard " + shard.getName() + ", moving it aside", e);
+                moveAside(shard);
+            }
+        }
+        if (shards.length > 0) logger.warning("Rebuilt the raid manifest from " + entries.size() + " shards");
+        return entries;
+    }
+
+    @Override
+    public RaidStats loadActive(RaidManifest.Entry entry) {
+        File shard = shardFile(entry.getId());
+        if (!shard.exists()) {
+            logger.warning("Missing shard for raid " + entry.getId() + " (" + entry.getRaidingFaction() + " vs " + entry.getDefendingFaction() + ")");
+            return null;
+        }
+
+        try {
+            List<RaidStats> raids = RaidBinaryFormat.readFile(readFile(shard), logger);
+            return raids.isEmpty() ? null : raids.get(0);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to load raid " + entry.getId() + ", moving its shard aside", e);
+            moveAside(shard);
+            return null;
+        }
+    }
+
+    /**
+     * Rewrites the shards of changed raids and the manifest, then deletes the shards of raids no longer active.
+     */
+    @Override
+    public long saveActive(Collection<RaidManifest.Entry> active, Map<UUID, ByteBuffer> changed, long bytesPerSecond) throws IOException {
+        IoBudget budget = new IoBudget(bytesPerSecond);
+        for (Map.Entry<UUID, ByteBuffer> shard : changed.entrySet()) {
+            write(shardFile(shard.getKey()), shard.getValue(), budget);
+        }
+        // Written last, a crash before this leaves the old manifest and the journal to rebuild from
+        write(manifestFile, RaidManifest.write(active), budget);
+
+        Set<UUID> keep = new HashSet<>();
+        for (RaidManifest.Entry entry : active) keep.add(entry.getId());
+        deleteShardsExcept(keep);
+        return budget.written;
+    }
+
+    @Override
+    public ArchivedRaid archive(RaidStats raid, long endTime) throws IOException {
+        return archive.append(raid, endTime);
+    }
+
+    @Override
+    public RaidStats loadArchived(UUID raidId) throws IOException {
+        return archive.load(raidId);
+    }
+
+    @Override
+    public boolean isArchived(UUID raidId) {
+        return archive.contains(raidId);
+    }
+
+    @Override
+    public List<ArchivedRaid> getArchivedByFaction(String factionId, long from, long to) {
+        return archive.getByFaction(factionId, from, to);
+    }
+
+    @Override
+    public List<ArchivedRaid> getArchivedAfter(long position) {
+        return archive.getAppendedAfter(position);
+    }
+
+    @Override
+    public void close() throws IOException {
+        archive.close();
+    }
+
+    private File shardFile(UUID raidId) {
+        return new File(raidsFolder, raidId + SHARD_SUFFIX);
+    }
+
+    /**
+     * Deletes the shards of raids that are no longer tracked.
+     */
+    private void deleteShardsExcept(Set<UUID> keep) {
+        File[] shards = raidsFolder.listFiles((dir, name) -> name.endsWith(SHARD_SUFFIX));
+        if (shards == null) return;
+
+        for (File shard : shards) {
+            String name = shard.getName();
+            try {
+                if (!keep.contains(UUID.fromString(name.substring(0, name.length() - SHARD_SUFFIX.length())))) shard.delete();
+            } catch (IllegalArgumentException ignored) {
+                // Not a shard
+            }
+        }
+    }
+
+    /**
+     * Writes the data to a temp file, forces it to disk and renames it over the target.
+     */
+    private void write(File target, ByteBuffer bytes, IoBudget budget) throws IOException {
+        File tempFile = new File(target.getParentFile(), target.getName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int end = bytes.limit();
+            while (bytes.hasRemaining()) {
+                bytes.limit(Math.min(end, bytes.position() + WRITE_CHUNK));
+                while (bytes.hasRemaining()) budget.consume(channel.write(bytes));
+                bytes.limit(end);
+            }
+            channel.force(true);
+        }
+
+        try {
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static ByteBuffer readFile(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer bytes = ByteBuffer.allocate((int) channel.size());
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                // Keep reading until the buffer is full
+            }
+            bytes.flip();
+            return bytes;
+        }
+    }
+
+    private void moveAside(File file) {
+        File corrupt = new File(file.getParentFile(), file.getName() + ".corrupt");
+        if (!file.renameTo(corrupt)) logger.warning("Failed to move " + file.getName() + " to " + corrupt.getName());
+    }
+
+    /**
+     * Limits the write speed of one save.
+     */
+    private static final class IoBudget {
+        private final long bytesPerSecond;
+        private final long start = System.nanoTime();
+        private long written;
+
+        private IoBudget(long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        /**
+         * Records written bytes, waiting if the save is ahead of its budget.
+         */
+        private void consume(int bytes) {
+            written += bytes;
+            if (bytesPerSecond <= 0) return;
+
+            long wait = start + written * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+        }
+    }
+}
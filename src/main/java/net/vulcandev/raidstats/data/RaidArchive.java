@@ -0,0 +1,639 @@
+package net.vulcandev.raidstats.data;
+
+import lombok.Getter;
+import net.vulcandev.raidstats.objects.RaidStats;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Append-only archive of finished raids.
+ * Raids are appended to numbered segment files, each record holding the raid's factions and end time next to
+ * the raid encoded with the {@link RaidBinaryFormat}. Once the active segment reaches its size limit it is
+ * sealed: its records are compressed if enabled, an index file listing every record's offset is written next
+ * to it and the segment is never modified again. Sealed segments whose newest raid ended before the retention
+ * period are deleted whole, on startup and whenever a segment is sealed; the active segment is never deleted.
+ * Every record is indexed in memory by raid UUID, faction and end time, so a lookup reads only that record.
+ */
+public class RaidArchive {
+    // "VRSA" and "VRSI"
+    private static final int SEGMENT_MAGIC = 0x56525341;
+    private static final int INDEX_MAGIC = 0x56525349;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 6;
+    private static final byte COMPRESSED = 1;
+
+    private static final String PREFIX = "archive-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private static final Comparator<Entry> BY_END_TIME = Comparator.comparingLong(Entry::getEndTime)
+            .thenComparing(Entry::getId);
+
+    private final File folder;
+    private final long segmentBytes;
+    private final boolean compress;
+    private final long retentionMillis;
+    private final Logger logger;
+
+    private final Map<UUID, Entry> byId = new ConcurrentHashMap<>();
+    // Index values are immutable lists that are swapped on write
+    private final Map<String, List<Entry>> byFaction = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> byEndTime = new ConcurrentSkipListSet<>(BY_END_TIME);
+    // Lookups hold the read lock, sealing rewrites a segment under the write lock
+    private final ReadWriteLock segmentLock = new ReentrantReadWriteLock();
+
+    // Active segment, only touched while holding this archive's lock
+    private long segment;
+    private FileChannel channel;
+    private long segmentLength;
+    private int segmentRecords;
+    private boolean closed;
+
+    /**
+     * Opens the archive, reading the index of every segment on disk.
+     *
+     * @param folder Folder holding the segments
+     */
+    public RaidArchive(File folder, ArchiveSettings settings, Logger logger) throws IOException {
+        this.folder = folder;
+        this.segmentBytes = settings.getSegmentBytes();
+        this.compress = settings.isCompress();
+        this.retentionMillis = settings.getRetentionMillis();
+        this.logger = logger;
+
+        SortedMap<Long, File> segments = listSegments();
+        for (Map.Entry<Long, File> entry : segments.entrySet()) {
+            long number = entry.getKey();
+            List<Entry> entries = readIndex(number);
+            if (entries == null) {
+                // Active segment, or one that was not fully sealed
+                boolean last = number == segments.lastKey();
+                entries = scanSegment(number, entry.getValue(), last);
+                if (!last || isCompressed(entry.getValue()) || entry.getValue().length() >= segmentBytes) {
+                    writeIndex(number, entries);
+                } else {
+                    segment = number;
+                    segmentLength = entry.getValue().length();
+                    segmentRecords = entries.size();
+                }
+            }
+            for (Entry archived : entries) index(archived);
+        }
+
+        if (segment == 0L) {
+            segment = segments.isEmpty() ? 1L : segments.lastKey() + 1;
+            segmentLength = 0L;
+            segmentRecords = 0;
+        }
+        channel = openActive();
+        deleteExpired();
+    }
+
+    /**
+     * Appends a finished raid to the archive and forces it to disk.
+     * Raids are only archived once, so a raid ending again after a crash is ignored.
+     *
+     * @param raid The raid, must no longer receive stats
+     * @param endTime When the raid ended
+     * @return The archived raid, or null if it was already archived
+     */
+    public synchronized ArchivedRaid append(RaidStats raid, long endTime) throws IOException {
+        if (closed || byId.containsKey(raid.getId())) return null;
+        // Left closed by a failed seal
+        if (!channel.isOpen()) channel = openActive();
+
+        RaidBinaryFormat format = new RaidBinaryFormat();
+        byte[] payload = toArray(format.writeFile(Collections.singletonList(format.encode(raid))));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeRecordHeader(out, raid.getId(), raid.getRaidingFaction(), raid.getDefendingFaction(), endTime, payload);
+        int payloadOffset = out.size();
+        out.write(payload);
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        try {
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(false);
+        } catch (IOException e) {
+            // Drop the partial record, later records are appended where the index expects them
+            try {
+                channel.truncate(segmentLength);
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        }
+
+        Entry entry = new Entry(raid.getId(), raid.getRaidingFaction(), raid.getDefendingFaction(), endTime, segment,
+                segmentRecords++, segmentLength + payloadOffset, payload.length);
+        index(entry);
+        segmentLength += bytes.size();
+
+        if (segmentLength >= segmentBytes) {
+            // The raid is already on disk, a segment that fails to seal is tried again with the next append
+            try {
+                sealActive();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to seal archive segment " + segment, e);
+            }
+            deleteExpired();
+        }
+        return entry;
+    }
+
+    /**
+     * Reads an archived raid, or null if it is not in the archive.
+     * Reads only the raid's own record from disk, so it should not be called on the main thread.
+     */
+    public RaidStats load(UUID raidId) throws IOException {
+        segmentLock.readLock().lock();
+        try {
+            // Looked up under the lock, sealing moves the record
+            Entry entry = byId.get(raidId);
+            if (entry == null) return null;
+
+            File file = segmentFile(entry.segment);
+            byte[] stored = new byte[entry.length + 4];
+            int checksum;
+            boolean compressed;
+            try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                readFully(in, header, 0L);
+                compressed = (header.get(5) & COMPRESSED) != 0;
+
+                ByteBuffer record = ByteBuffer.wrap(stored);
+                readFully(in, record, entry.offset - 4);
+                checksum = ByteBuffer.wrap(stored, 0, 4).getInt();
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(stored, 4, entry.length);
+            if ((int) crc.getValue() != checksum) throw new IOException("Archived raid " + raidId + " failed its checksum");
+
+            byte[] payload = compressed ? inflate(stored, 4, entry.length) : Arrays.copyOfRange(stored, 4, stored.length);
+            List<RaidStats> raids = RaidBinaryFormat.readFile(ByteBuffer.wrap(payload), logger);
+            return raids.isEmpty() ? null : raids.get(0);
+        } finally {
+            segmentLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks if a raid is in the archive.
+     */
+    public boolean contains(UUID raidId) {
+        return byId.containsKey(raidId);
+    }
+
+    /**
+     * Gets the index data of an archived raid, or null if it is not in the archive.
+     */
+    public ArchivedRaid getArchived(UUID raidId) {
+        return byId.get(raidId);
+    }
+
+    /**
+     * Gets the archived raids a faction took part in that ended within a time range, newest first.
+     *
+     * @param from Start of the range, inclusive
+     * @param to End of the range, exclusive
+     */
+    public List<ArchivedRaid> getByFaction(String factionId, long from, long to) {
+        List<ArchivedRaid> result = new ArrayList<>();
+        for (Entry entry : byFaction.getOrDefault(factionId, Collections.emptyList())) {
+            if (entry.getEndTime() >= from && entry.getEndTime() < to) result.add(entry);
+        }
+        result.sort(Comparator.comparingLong(ArchivedRaid::getEndTime).reversed());
+        return result;
+    }
+
+    /**
+     * Gets the raids archived after a position, oldest first.
+     *
+     * @param position Position of an archived raid, or -1 for every raid
+     */
+    public List<ArchivedRaid> getAppendedAfter(long position) {
+        List<ArchivedRaid> result = new ArrayList<>();
+        for (Entry entry : byId.values()) {
+            if (entry.getPosition() > position) result.add(entry);
+        }
+        result.sort(Comparator.comparingLong(ArchivedRaid::getPosition));
+        return result;
+    }
+
+    /**
+     * Gets the number of archived raids.
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Closes the active segment, later appends are ignored.
+     * The segment is left unsealed and appended to after the next startup.
+     */
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        channel.close();
+    }
+
+    /**
+     * Writes a record header, the payload follows it.
+     */
+    private static void writeRecordHeader(DataOutputStream out, UUID id, String raidingFaction, String defendingFaction,
+                                         long endTime, byte[] payload) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+        out.writeUTF(raidingFaction);
+        out.writeUTF(defendingFaction);
+        out.writeLong(endTime);
+        out.writeInt(payload.length);
+
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Seals the active segment and starts the next one.
+     * If compressing fails the segment stays active, if only its index fails the next startup writes it.
+     */
+    private void sealActive() throws IOException {
+        channel.close();
+        try {
+            File file = segmentFile(segment);
+            List<Entry> entries = new ArrayList<>();
+            for (Entry entry : byEndTime) {
+                if (entry.segment == segment) entries.add(entry);
+            }
+            entries.sort(Comparator.comparingInt(Entry::getRecord));
+
+            if (compress) {
+                segmentLock.writeLock().lock();
+                try {
+                    entries = compressSegment(file, entries);
+                    for (Entry entry : entries) index(entry);
+                } finally {
+                    segmentLock.writeLock().unlock();
+                }
+            }
+
+            // A compressed segment must not be appended to, so the next one starts before its index is written
+            segment++;
+            segmentLength = 0L;
+            segmentRecords = 0;
+            writeIndex(segment - 1, entries);
+        } finally {
+            try {
+                channel = openActive();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to open archive segment " + segment + ", retrying with the next append", e);
+            }
+        }
+    }
+
+    /**
+     * Rewrites a segment with every payload compressed.
+     *
+     * @return The entries of the rewritten segment
+     */
+    private List<Entry> compressSegment(File file, List<Entry> entries) throws IOException {
+        ByteBuffer source = readFile(file);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(source.remaining() / 2 + HEADER_SIZE);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(SEGMENT_MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(COMPRESSED);
+
+        List<Entry> compressed = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            byte[] payload = deflate(source.array(), (int) entry.offset, entry.length);
+            writeRecordHeader(out, entry.getId(), entry.getRaidingFaction(), entry.getDefendingFaction(), entry.getEndTime(), payload);
+            compressed.add(new Entry(entry.getId(), entry.getRaidingFaction(), entry.getDefendingFaction(), entry.getEndTime(), entry.segment,
+                    entry.record, out.size(), payload.length));
+            out.write(payload);
+        }
+
+        File tempFile = new File(folder, file.getName() + ".tmp");
+        try (FileChannel temp = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) temp.write(buffer);
+            temp.force(true);
+        }
+        move(tempFile, file);
+        return compressed;
+    }
+
+    /**
+     * Deletes sealed segments whose newest raid ended before the retention period.
+     */
+    private void deleteExpired() {
+        if (retentionMillis <= 0) return;
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+
+        Map<Long, Long> newest = new HashMap<>();
+        for (Entry entry : byEndTime) newest.merge(entry.segment, entry.getEndTime(), Math::max);
+
+        for (Map.Entry<Long, Long> entry : newest.entrySet()) {
+            long number = entry.getKey();
+            if (number == segment || entry.getValue() >= cutoff) continue;
+
+            segmentLock.writeLock().lock();
+            try {
+                for (Entry archived : new ArrayList<>(byEndTime)) {
+                    if (archived.segment == number) unindex(archived);
+                }
+                segmentFile(number).delete();
+                indexFile(number).delete();
+            } finally {
+                segmentLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void index(Entry entry) {
+        Entry previous = byId.put(entry.getId(), entry);
+        if (previous != null) byEndTime.remove(previous);
+        byEndTime.add(entry);
+        byFaction.compute(entry.getRaidingFaction(), (k, list) -> replace(list, previous, entry));
+        if (!entry.getDefendingFaction().equals(entry.getRaidingFaction())) {
+            byFaction.compute(entry.getDefendingFaction(), (k, list) -> replace(list, previous, entry));
+        }
+    }
+
+    private void unindex(Entry entry) {
+        byId.remove(entry.getId(), entry);
+        byEndTime.remove(entry);
+        byFaction.computeIfPresent(entry.getRaidingFaction(), (k, list) -> without(list, entry));
+        byFaction.computeIfPresent(entry.getDefendingFaction(), (k, list) -> without(list, entry));
+    }
+
+    private static List<Entry> replace(List<Entry> list, Entry previous, Entry entry) {
+        List<Entry> copy = list == null ? new ArrayList<>(1) : new ArrayList<>(list);
+        int index = previous == null ? -1 : copy.indexOf(previous);
+        if (index >= 0) copy.set(index, entry);
+        else copy.add(entry);
+        return Collections.unmodifiableList(copy);
+    }
+
+    private static List<Entry> without(List<Entry> list, Entry entry) {
+        List<Entry> copy = new ArrayList<>(list);
+        copy.remove(entry);
+        return copy.isEmpty() ? null : Collections.unmodifiableList(copy);
+    }
+
+    /**
+     * Reads the records of a segment that has no index yet.
+     * A torn record at the end of the active segment is cut off so appends continue after the last whole record.
+     */
+    private List<Entry> scanSegment(long number, File file, boolean active) throws IOException {
+        byte[] bytes = toArray(readFile(file));
+        List<Entry> entries = new ArrayList<>();
+        if (bytes.length < HEADER_SIZE) {
+            // Created but never written to
+            writeHeader(file);
+            return entries;
+        }
+
+        ByteArrayInputStream stream = new ByteArrayInputStream(bytes);
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != SEGMENT_MAGIC) throw new IOException("Not a raid archive segment: " + file.getName());
+        in.readUnsignedByte();
+        in.readUnsignedByte();
+
+        long valid = HEADER_SIZE;
+        try {
+            while (stream.available() > 0) {
+                UUID id = new UUID(in.readLong(), in.readLong());
+                String raidingFaction = in.readUTF();
+                String defendingFaction = in.readUTF();
+                long endTime = in.readLong();
+                int length = in.readInt();
+                in.readInt();
+                long offset = bytes.length - stream.available();
+                if (length < 0 || in.skip(length) != length) throw new EOFException();
+
+                entries.add(new Entry(id, raidingFaction, defendingFaction, endTime, number, entries.size(), offset, length));
+                valid = bytes.length - stream.available();
+            }
+        } catch (EOFException e) {
+            logger.warning("Raid archive " + file.getName() + " ends with an incomplete record, ignoring it");
+            if (active) {
+                try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                    out.truncate(valid);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Reads the index of a sealed segment, or null if it has none or it is unreadable.
+     */
+    private List<Entry> readIndex(long number) {
+        File file = indexFile(number);
+        if (!file.exists()) return null;
+
+        try {
+            byte[] bytes = toArray(readFile(file));
+            if (bytes.length < 4) throw new IOException("Raid archive index is truncated");
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - 4);
+            if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - 4, 4).getInt()) {
+                throw new IOException("Raid archive index checksum does not match");
+            }
+
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4))) {
+                if (in.readInt() != INDEX_MAGIC) throw new IOException("Not a raid archive index");
+                int version = in.readInt();
+                if (version != VERSION) throw new IOException("Unsupported raid archive index version " + version);
+
+                int count = in.readInt();
+                List<Entry> entries = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    UUID id = new UUID(in.readLong(), in.readLong());
+                    entries.add(new Entry(id, in.readUTF(), in.readUTF(), in.readLong(), number, i, in.readLong(), in.readInt()));
+                }
+                return entries;
+            }
+        } catch (IOException e) {
+            // Rebuilt from the segment itself
+            logger.log(Level.WARNING, "Failed to read raid archive index " + file.getName() + ", rebuilding it", e);
+            return null;
+        }
+    }
+
+    private void writeIndex(long number, List<Entry> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + entries.size() * 64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(INDEX_MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(entries.size());
+        for (Entry entry : entries) {
+            out.writeLong(entry.getId().getMostSignificantBits());
+            out.writeLong(entry.getId().getLeastSignificantBits());
+            out.writeUTF(entry.getRaidingFaction());
+            out.writeUTF(entry.getDefendingFaction());
+            out.writeLong(entry.getEndTime());
+            out.writeLong(entry.offset);
+            out.writeInt(entry.length);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+
+        File file = indexFile(number);
+        File tempFile = new File(folder, file.getName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        move(tempFile, file);
+    }
+
+    private FileChannel openActive() throws IOException {
+        File file = segmentFile(segment);
+        if (!file.exists() || file.length() < HEADER_SIZE) writeHeader(file);
+        return FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void writeHeader(File file) throws IOException {
+        try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(SEGMENT_MAGIC).put((byte) VERSION).put((byte) 0).flip();
+            while (header.hasRemaining()) out.write(header);
+            out.force(true);
+        }
+        segmentLength = HEADER_SIZE;
+    }
+
+    private static boolean isCompressed(File file) throws IOException {
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            return in.read(header) == HEADER_SIZE && (header.get(5) & COMPRESSED) != 0;
+        }
+    }
+
+    /**
+     * Lists the segments on disk in order.
+     */
+    private SortedMap<Long, File> listSegments() {
+        SortedMap<Long, File> segments = new TreeMap<>();
+        File[] files = folder.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) return segments;
+
+        for (File file : files) {
+            String name = file.getName();
+            try {
+                segments.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())), file);
+            } catch (NumberFormatException ignored) {
+                // Not a segment
+            }
+        }
+        return segments;
+    }
+
+    private File segmentFile(long number) {
+        return new File(folder, PREFIX + number + SEGMENT_SUFFIX);
+    }
+
+    private File indexFile(long number) {
+        return new File(folder, PREFIX + number + INDEX_SUFFIX);
+    }
+
+    static byte[] deflate(byte[] bytes, int offset, int length) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + 16);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream stream = new DeflaterOutputStream(out, deflater)) {
+            stream.write(bytes, offset, length);
+        } catch (IOException e) {
+            // Writes go to memory and cannot fail
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] inflate(byte[] bytes, int offset, int length) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length * 3);
+        try (InflaterInputStream stream = new InflaterInputStream(new ByteArrayInputStream(bytes, offset, length))) {
+            byte[] chunk = new byte[4096];
+            int read;
+            while ((read = stream.read(chunk)) != -1) out.write(chunk, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static void readFully(FileChannel in, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer, position + buffer.position()) < 0) throw new EOFException("Raid archive segment is truncated");
+        }
+    }
+
+    private static ByteBuffer readFile(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer bytes = ByteBuffer.allocate((int) channel.size());
+            readFully(channel, bytes, 0L);
+            bytes.flip();
+            return bytes;
+        }
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static void move(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Archived raid with the location of its record.
+     */
+    @Getter
+    private static final class Entry extends ArchivedRaid {
+        private final long segment;
+        // Position of the record in its segment, in append order
+        private final int record;
+        // Location of the stored payload
+        private final long offset;
+        private final int length;
+
+        private Entry(UUID id, String raidingFaction, String defendingFaction, long endTime, long segment, int record, long offset, int length) {
+            super(id, raidingFaction, defendingFaction, endTime, segment << 32 | record);
+            this.segment = segment;
+            this.record = record;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package net.vulcandev.raidstats.data;
+
+import net.vulcandev.raidstats.objects.RaidStats;
+import net.vulcandev.raidstats.objects.StatsColumns;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned binary encoding of saved raids.
+ * A file holds a header, a string table of faction IDs and one block per raid followed by the block's CRC32.
+ * UUIDs are stored as two longs, counters as zigzag varints and faction IDs as string table indexes.
+ * Raids are encoded one at a time so unchanged raids can be reused between saves; the string table only
+ * ever grows, so an encoded raid stays valid for every later file written by the same instance.
+ */
+public class RaidBinaryFormat {
+    // "VRST"
+    private static final int MAGIC = 0x56525354;
+    private static final int VERSION = 1;
+
+    // Faction ID -> index, and the reverse, both only grow
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * Encodes a raid into a block for {@link #writeFile(List)}.
+     * Not thread safe, the string table is shared by every encoded raid.
+     */
+    public byte[] encode(RaidStats raid) {
+        Output out = new Output(256);
+        out.writeLong(raid.getId().getMostSignificantBits());
+        out.writeLong(raid.getId().getLeastSignificantBits());
+        out.writeVarInt(indexOf(raid.getRaidingFaction()));
+        out.writeVarInt(indexOf(raid.getDefendingFaction()));
+        out.writeVarLong(zigzag(raid.getPurgeTime()));
+        out.writeVarLong(zigzag(raid.getJournalSegment()));
+
+        Set<String> factions = raid.getFactions();
+        out.writeVarInt(factions.size());
+        for (String faction : factions) {
+            StatsColumns columns = raid.getColumns(faction);
+            int size = columns.size();
+            out.writeVarInt(indexOf(faction));
+            out.writeVarInt(size);
+            for (int row = 0; row < size; row++) {
+                UUID player = columns.uuidAt(row);
+                out.writeLong(player.getMostSignificantBits());
+                out.writeLong(player.getLeastSignificantBits());
+                out.writeVarInt(zigzag(columns.getKills(row)));
+                out.writeVarInt(zigzag(columns.getDeaths(row)));
+                out.writeVarInt(zigzag(columns.getHitsDealt(row)));
+                out.writeVarInt(zigzag(columns.getHitsTaken(row)));
+                out.writeVarInt(zigzag(columns.getBlocksPlaced(row)));
+                out.writeDouble(columns.getDamageDealt(row));
+                out.writeDouble(columns.getDamageTaken(row));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Builds a complete file from encoded raid blocks.
+     */
+    public ByteBuffer writeFile(List<byte[]> raids) {
+        Output out = new Output(64);
+        out.writeInt(MAGIC);
+        out.writeVarInt(VERSION);
+        out.writeVarInt(strings.size());
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeVarInt(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        out.writeVarInt(raids.size());
+        CRC32 crc = new CRC32();
+        for (byte[] raid : raids) {
+            crc.reset();
+            crc.update(raid, 0, raid.length);
+            out.writeVarInt(raid.length);
+            out.write(raid, 0, raid.length);
+            out.writeInt((int) crc.getValue());
+        }
+        return out.toBuffer();
+    }
+
+    /**
+     * Reads every raid from a file.
+     * Raids failing their checksum are skipped and logged, a bad header or truncated file fails the whole read.
+     */
+    public static List<RaidStats> readFile(ByteBuffer in, Logger logger) throws IOException {
+        try {
+            if (in.getInt() != MAGIC) throw new IOException("Not a raid stats file");
+            int version = readVarInt(in);
+            if (version != VERSION) throw new IOException("Unsupported raid stats file version " + version);
+
+            // Every string takes at least one byte
+            String[] strings = new String[readLength(in)];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[readLength(in)];
+                in.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int count = readLength(in);
+            List<RaidStats> raids = new ArrayList<>(count);
+            CRC32 crc = new CRC32();
+            for (int i = 0; i < count; i++) {
+                int length = readLength(in);
+                byte[] block = new byte[length];
+                in.get(block);
+                int checksum = in.getInt();
+
+                crc.reset();
+                crc.update(block, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    logger.warning("Skipping saved raid " + (i + 1) + "/" + count + ", its checksum does not match");
+                    continue;
+                }
+                raids.add(decode(ByteBuffer.wrap(block), strings));
+            }
+            return raids;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Raid stats file is truncated or corrupt", e);
+        }
+    }
+
+    private static RaidStats decode(ByteBuffer in, String[] strings) {
+        UUID id = new UUID(in.getLong(), in.getLong());
+        RaidStats raid = new RaidStats(id, strings[readVarInt(in)], strings[readVarInt(in)], null);
+        raid.setPurgeTime(unzigzag(readVarLong(in)));
+        raid.setJournalSegment(unzigzag(readVarLong(in)));
+
+        int factions = readVarInt(in);
+        for (int i = 0; i < factions; i++) {
+            StatsColumns columns = raid.getOrCreateColumns(strings[readVarInt(in)]);
+            int players = readVarInt(in);
+            for (int row = 0; row < players; row++) {
+                UUID player = new UUID(in.getLong(), in.getLong());
+                int kills = unzigzag(readVarInt(in));
+                int deaths = unzigzag(readVarInt(in));
+                int hitsDealt = unzigzag(readVarInt(in));
+                int hitsTaken = unzigzag(readVarInt(in));
+                int blocksPlaced = unzigzag(readVarInt(in));
+                double damageDealt = in.getDouble();
+                double damageTaken = in.getDouble();
+                columns.load(player, kills, deaths, damageDealt, hitsDealt, hitsTaken, damageTaken, blocksPlaced);
+            }
+        }
+        return raid;
+    }
+
+    private int indexOf(String string) {
+        Integer index = stringIndex.get(string);
+        if (index != null) return index;
+
+        stringIndex.put(string, strings.size());
+        strings.add(string);
+        return strings.size() - 1;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads a length or count that cannot exceed the bytes left, so a corrupt value fails the read instead of
+     * allocating a negative or huge array.
+     */
+    private static int readLength(ByteBuffer in) throws IOException {
+        int length = readVarInt(in);
+        if (length < 0 || length > in.remaining()) throw new IOException("Raid stats file has an invalid length " + length);
+        return length;
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IndexOutOfBoundsException("Varint too long");
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0L;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IndexOutOfBoundsException("Varint too long");
+    }
+
+    /**
+     * Growable big endian byte buffer.
+     */
+    private static final class Output {
+        private byte[] bytes;
+        private int size;
+
+        private Output(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, size + extra));
+        }
+
+        private void write(byte[] data, int offset, int length) {
+            ensure(length);
+            System.arraycopy(data, offset, bytes, size, length);
+            size += length;
+        }
+
+        private void writeInt(int value) {
+            ensure(4);
+            bytes[size++] = (byte) (value >>> 24);
+            bytes[size++] = (byte) (value >>> 16);
+            bytes[size++] = (byte) (value >>> 8);
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        private void writeDouble(double value) {
+            writeLong(Double.doubleToRawLongBits(value));
+        }
+
+        private void writeVarInt(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private ByteBuffer toBuffer() {
+            return ByteBuffer.wrap(bytes, 0, size);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package net.vulcandev.raidstats.data;
+
+import lombok.Getter;
+import net.vulcandev.raidstats.objects.RaidStats;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Small index of the saved raid shards.
+ * Holds each raid's UUID, factions and purge time so startup can skip expired raids without reading their
+ * stats. The whole manifest is covered by a single CRC32.
+ */
+public final class RaidManifest {
+    // "VRSM"
+    private static final int MAGIC = 0x5652534D;
+    private static final int VERSION = 1;
+
+    private RaidManifest() {}
+
+    /**
+     * Encodes the manifest entries of the given raids.
+     */
+    public static ByteBuffer write(Collection<Entry> entries) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + entries.size() * 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                out.writeLong(entry.id.getMostSignificantBits());
+                out.writeLong(entry.id.getLeastSignificantBits());
+                out.writeUTF(entry.raidingFaction);
+                out.writeUTF(entry.defendingFaction);
+                out.writeLong(entry.purgeTime);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            // Writes go to memory and cannot fail
+            throw new UncheckedIOException(e);
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    /**
+     * Reads every entry of a manifest.
+     */
+    public static List<Entry> read(ByteBuffer in) throws IOException {
+        byte[] bytes = new byte[in.remaining()];
+        in.get(bytes);
+        if (bytes.length < 4) throw new IOException("Raid manifest is truncated");
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - 4, 4).getInt()) {
+            throw new IOException("Raid manifest checksum does not match");
+        }
+
+        try (DataInputStream data = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4))) {
+            if (data.readInt() != MAGIC) throw new IOException("Not a raid manifest");
+            int version = data.readInt();
+            if (version != VERSION) throw new IOException("Unsupported raid manifest version " + version);
+
+            int count = data.readInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                UUID id = new UUID(data.readLong(), data.readLong());
+                entries.add(new Entry(id, data.readUTF(), data.readUTF(), data.readLong()));
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Manifest data of one raid.
+     */
+    @Getter
+    public static final class Entry {
+        private final UUID id;
+        private final String raidingFaction;
+        private final String defendingFaction;
+        private final long purgeTime;
+
+        public Entry(UUID id, String raidingFaction, String defendingFaction, long purgeTime) {
+            this.id = id;
+            this.raidingFaction = raidingFaction;
+            this.defendingFaction = defendingFaction;
+            this.purgeTime = purgeTime;
+        }
+
+        public Entry(RaidStats raid) {
+            this(raid.getId(), raid.getRaidingFaction(), raid.getDefendingFaction(), raid.getPurgeTime());
+        }
+
+        /**
+         * Checks if the raid's grace period is over, so it no longer needs loading.
+         */
+        public boolean isExpired(long now) {
+            return purgeTime != -1L && purgeTime <= now;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package net.vulcandev.raidstats.data;
+
+import net.vulcandev.raidstats.objects.RaidStats;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Storage backend for active and archived raids.
+ * Raids are passed in encoded with the {@link RaidBinaryFormat}, next to the index data each backend keeps
+ * so raids can be listed and filtered without decoding them. The stat journal and checkpoint scheduling stay
+ * in the {@link DataManager}, a backend only has to make each save atomic.
+ * Every method may block on disk I/O and should not be called on the main thread.
+ */
+public interface RaidStorage {
+    /**
+     * Lists the saved active raids.
+     */
+    List<RaidManifest.Entry> listActive() throws IOException;
+
+    /**
+     * Reads a saved active raid, or null if it is missing or unreadable.
+     * Safe to call from several threads at once.
+     */
+    RaidStats loadActive(RaidManifest.Entry entry);
+
+    /**
+     * Replaces the saved active raids.
+     *
+     * @param active Every active raid, saved raids not listed are removed
+     * @param changed Encoded raids changed since the last save
+     * @param bytesPerSecond Max write speed, 0 for unlimited
+     * @return The number of bytes written
+     */
+    long saveActive(Collection<RaidManifest.Entry> active, Map<UUID, ByteBuffer> changed, long bytesPerSecond) throws IOException;
+
+    /**
+     * Archives a finished raid.
+     * Raids are only archived once, so a raid ending again after a crash is ignored.
+     *
+     * @param raid The raid, must no longer receive stats
+     * @param endTime When the raid ended
+     * @return The archived raid, or null if it was already archived
+     */
+    ArchivedRaid archive(RaidStats raid, long endTime) throws IOException;
+
+    /**
+     * Reads an archived raid, or null if it is not in the archive.
+     */
+    RaidStats loadArchived(UUID raidId) throws IOException;
+
+    /**
+     * Checks if a raid is in the archive.
+     */
+    boolean isArchived(UUID raidId) throws IOException;
+
+    /**
+     * Gets the archived raids a faction took part in that ended within a time range, newest first.
+     *
+     * @param from Start of the range, inclusive
+     * @param to End of the range, exclusive
+     */
+    List<ArchivedRaid> getArchivedByFaction(String factionId, long from, long to) throws IOException;
+
+    /**
+     * Gets the raids archived after a position, oldest first.
+     *
+     * @param position Position of an archived raid, or -1 for every raid
+     */
+    List<ArchivedRaid> getArchivedAfter(long position) throws IOException;
+
+    /**
+     * Flushes and closes the backend.
+     */
+    void close() throws IOException;
+}
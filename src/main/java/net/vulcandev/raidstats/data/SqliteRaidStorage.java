@@ -0,0 +1,488 @@
+package net.vulcandev.raidstats.data;
+
+import net.vulcandev.raidstats.objects.RaidStats;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Storage backend keeping raids in an embedded SQLite database file.
+ * Raids are stored as {@link RaidBinaryFormat} blobs next to indexed columns for their factions, purge time
+ * and end time, so archive lookups by faction and time range are index scans rather than full loads.
+ * Every write runs as one transaction of batched prepared statements on a dedicated writer thread, reads run
+ * on the calling thread; both take their connection from a small pool. The SQLite driver shipped with the
+ * server is used, nothing is bundled with the plugin.
+ */
+public class SqliteRaidStorage implements RaidStorage {
+    private static final String DRIVER = "org.sqlite.JDBC";
+    // Retention is applied at most this often while raids are archived
+    private static final long RETENTION_INTERVAL = TimeUnit.HOURS.toMillis(1);
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS active_raids (id TEXT PRIMARY KEY, raiding TEXT NOT NULL, defending TEXT NOT NULL,"
+                    + " purge_time INTEGER NOT NULL, data BLOB NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS archived_raids (position INTEGER PRIMARY KEY AUTOINCREMENT, id TEXT NOT NULL UNIQUE,"
+                    + " raiding TEXT NOT NULL, defending TEXT NOT NULL, end_time INTEGER NOT NULL, compressed INTEGER NOT NULL,"
+                    + " data BLOB NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS archived_raids_raiding ON archived_raids (raiding, end_time)",
+            "CREATE INDEX IF NOT EXISTS archived_raids_defending ON archived_raids (defending, end_time)",
+            "CREATE INDEX IF NOT EXISTS archived_raids_end_time ON archived_raids (end_time)"
+    };
+    private static final String ARCHIVED_COLUMNS = "position, id, raiding, defending, end_time";
+
+    private final ConnectionPool pool;
+    private final ExecutorService writer;
+    private final ArchiveSettings settings;
+    private final Logger logger;
+    // Only touched on the writer thread
+    private long nextRetention;
+
+    /**
+     * Opens the database, creating its tables if needed.
+     *
+     * @param file Database file
+     * @param poolSize Max open connections
+     */
+    public SqliteRaidStorage(File file, int poolSize, ArchiveSettings settings, Logger logger) throws IOException {
+        try {
+            Class.forName(DRIVER);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("The SQLite driver is not available on this server", e);
+        }
+
+        this.pool = new ConnectionPool("jdbc:sqlite:" + file.getAbsolutePath(), Math.max(2, poolSize));
+        this.writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "VulcanRaidStats-Storage");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.settings = settings;
+        this.logger = logger;
+
+        write(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : SCHEMA) statement.executeUpdate(sql);
+            }
+            deleteExpired(connection);
+            return null;
+        });
+    }
+
+    /**
+     * Copies the raids saved by the file backend into an empty database, keeping archive positions.
+     *
+     * @return true if anything was copied
+     */
+    public boolean importFrom(FileRaidStorage files) throws IOException {
+        boolean empty = read(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery("SELECT (SELECT COUNT(*) FROM active_raids) + (SELECT COUNT(*) FROM archived_raids)")) {
+                return result.next() && result.getLong(1) == 0L;
+            }
+        });
+        if (!empty) return false;
+
+        List<RaidManifest.Entry> active = new ArrayList<>();
+        Map<UUID, ByteBuffer> encoded = new LinkedHashMap<>();
+        for (RaidManifest.Entry entry : files.listActive()) {
+            RaidStats raid = files.loadActive(entry);
+            if (raid == null) continue;
+            active.add(entry);
+            encoded.put(raid.getId(), encode(raid));
+        }
+
+        List<ArchivedRaid> archived = files.getArchivedAfter(-1L);
+        if (active.isEmpty() && archived.isEmpty()) return false;
+        saveActive(active, encoded, 0L);
+
+        Map<ArchivedRaid, RaidStats> archivedStats = new LinkedHashMap<>();
+        for (ArchivedRaid raid : archived) {
+            RaidStats stats = files.loadArchived(raid.getId());
+            if (stats != null) archivedStats.put(raid, stats);
+        }
+        write(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement("INSERT OR IGNORE INTO archived_raids"
+                    + " (position, id, raiding, defending, end_time, compressed, data) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                for (Map.Entry<ArchivedRaid, RaidStats> raid : archivedStats.entrySet()) {
+                    insert.setLong(1, raid.getKey().getPosition());
+                    bindArchived(insert, 2, raid.getValue(), raid.getKey().getEndTime(), archiveBlob(raid.getValue()));
+                    insert.addBatch();
+                }
+                return insert.executeBatch();
+            }
+        });
+        logger.info("Imported " + active.size() + " active and " + archivedStats.size() + " archived raids into the database");
+        return true;
+    }
+
+    @Override
+    public List<RaidManifest.Entry> listActive() throws IOException {
+        return read(connection -> {
+            List<RaidManifest.Entry> entries = new ArrayList<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery("SELECT id, raiding, defending, purge_time FROM active_raids")) {
+                while (result.next()) {
+                    entries.add(new RaidManifest.Entry(UUID.fromString(result.getString(1)), result.getString(2),
+                            result.getString(3), result.getLong(4)));
+                }
+            }
+            return entries;
+        });
+    }
+
+    @Override
+    public RaidStats loadActive(RaidManifest.Entry entry) {
+        try {
+            byte[] data = read(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement("SELECT data FROM active_raids WHERE id = ?")) {
+                    statement.setString(1, entry.getId().toString());
+                    try (ResultSet result = statement.executeQuery()) {
+                        return result.next() ? result.getBytes(1) : null;
+                    }
+                }
+            });
+            if (data == null) {
+                logger.warning("Missing saved raid " + entry.getId() + " (" + entry.getRaidingFaction() + " vs " + entry.getDefendingFaction() + ")");
+                return null;
+            }
+            return decode(data);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to load raid " + entry.getId(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Upserts the changed raids and deletes raids no longer active, in one transaction.
+     * The write speed limit is ignored, SQLite decides how the pages reach the disk.
+     */
+    @Override
+    public long saveActive(Collection<RaidManifest.Entry> active, Map<UUID, ByteBuffer> changed, long bytesPerSecond) throws IOException {
+        return write(connection -> {
+            long written = 0L;
+            Map<UUID, RaidManifest.Entry> byId = new HashMap<>();
+            for (RaidManifest.Entry entry : active) byId.put(entry.getId(), entry);
+
+            try (PreparedStatement upsert = connection.prepareStatement(
+                    "INSERT OR REPLACE INTO active_raids (id, raiding, defending, purge_time, data) VALUES (?, ?, ?, ?, ?)")) {
+                for (Map.Entry<UUID, ByteBuffer> raid : changed.entrySet()) {
+                    RaidManifest.Entry entry = byId.get(raid.getKey());
+                    if (entry == null) continue;
+
+                    byte[] data = toArray(raid.getValue());
+                    upsert.setString(1, entry.getId().toString());
+                    upsert.setString(2, entry.getRaidingFaction());
+                    upsert.setString(3, entry.getDefendingFaction());
+                    upsert.setLong(4, entry.getPurgeTime());
+                    upsert.setBytes(5, data);
+                    upsert.addBatch();
+                    written += data.length;
+                }
+                upsert.executeBatch();
+            }
+
+            List<String> removed = new ArrayList<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery("SELECT id FROM active_raids")) {
+                while (result.next()) {
+                    String id = result.getString(1);
+                    if (!byId.containsKey(UUID.fromString(id))) removed.add(id);
+                }
+            }
+            if (!removed.isEmpty()) {
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM active_raids WHERE id = ?")) {
+                    for (String id : removed) {
+                        delete.setString(1, id);
+                        delete.addBatch();
+                    }
+                    delete.executeBatch();
+                }
+            }
+            return written;
+        });
+    }
+
+    @Override
+    public ArchivedRaid archive(RaidStats raid, long endTime) throws IOException {
+        byte[] data = archiveBlob(raid);
+        return write(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement("INSERT OR IGNORE INTO archived_raids"
+                    + " (id, raiding, defending, end_time, compressed, data) VALUES (?, ?, ?, ?, ?, ?)")) {
+                bindArchived(insert, 1, raid, endTime, data);
+                if (insert.executeUpdate() == 0) return null;
+            }
+
+            long position;
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery("SELECT last_insert_rowid()")) {
+                result.next();
+                position = result.getLong(1);
+            }
+            if (System.currentTimeMillis() >= nextRetention) deleteExpired(connection);
+            return new ArchivedRaid(raid.getId(), raid.getRaidingFaction(), raid.getDefendingFaction(), endTime, position);
+        });
+    }
+
+    @Override
+    public RaidStats loadArchived(UUID raidId) throws IOException {
+        return read(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT compressed, data FROM archived_raids WHERE id = ?")) {
+                statement.setString(1, raidId.toString());
+                try (ResultSet result = statement.executeQuery()) {
+                    if (!result.next()) return null;
+
+                    boolean compressed = result.getInt(1) != 0;
+                    byte[] data = result.getBytes(2);
+                    try {
+                        return decode(compressed ? RaidArchive.inflate(data, 0, data.length) : data);
+                    } catch (IOException e) {
+                        throw new SQLException("Archived raid " + raidId + " is corrupt", e);
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean isArchived(UUID raidId) throws IOException {
+        return read(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM archived_raids WHERE id = ?")) {
+                statement.setString(1, raidId.toString());
+                try (ResultSet result = statement.executeQuery()) {
+                    return result.next();
+                }
+            }
+        });
+    }
+
+    @Override
+    public List<ArchivedRaid> getArchivedByFaction(String factionId, long from, long to) throws IOException {
+        // One branch per index, the defending branch skips raids a faction ran against itself
+        return read(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT " + ARCHIVED_COLUMNS + " FROM archived_raids WHERE raiding = ? AND end_time >= ? AND end_time < ?"
+                            + " UNION ALL SELECT " + ARCHIVED_COLUMNS + " FROM archived_raids"
+                            + " WHERE defending = ? AND end_time >= ? AND end_time < ? AND raiding <> ?"
+                            + " ORDER BY end_time DESC")) {
+                statement.setString(1, factionId);
+                statement.setLong(2, from);
+                statement.setLong(3, to);
+                statement.setString(4, factionId);
+                statement.setLong(5, from);
+                statement.setLong(6, to);
+                statement.setString(7, factionId);
+                return readArchived(statement);
+            }
+        });
+    }
+
+    @Override
+    public List<ArchivedRaid> getArchivedAfter(long position) throws IOException {
+        return read(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT " + ARCHIVED_COLUMNS + " FROM archived_raids WHERE position > ? ORDER BY position")) {
+                statement.setLong(1, position);
+                return readArchived(statement);
+            }
+        });
+    }
+
+    /**
+     * Waits for queued writes, then closes every connection.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) logger.warning("Timed out waiting for database writes to finish");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.close();
+    }
+
+    private void deleteExpired(Connection connection) throws SQLException {
+        nextRetention = System.currentTimeMillis() + RETENTION_INTERVAL;
+        if (settings.getRetentionMillis() <= 0) return;
+
+        try (PreparedStatement statement = connection.prepareStatement("DELETE FROM archived_raids WHERE end_time < ?")) {
+            statement.setLong(1, System.currentTimeMillis() - settings.getRetentionMillis());
+            int deleted = statement.executeUpdate();
+            if (deleted > 0) logger.info("Deleted " + deleted + " archived raids past the retention period");
+        }
+    }
+
+    private void bindArchived(PreparedStatement statement, int index, RaidStats raid, long endTime, byte[] data) throws SQLException {
+        statement.setString(index, raid.getId().toString());
+        statement.setString(index + 1, raid.getRaidingFaction());
+        statement.setString(index + 2, raid.getDefendingFaction());
+        statement.setLong(index + 3, endTime);
+        statement.setInt(index + 4, settings.isCompress() ? 1 : 0);
+        statement.setBytes(index + 5, data);
+    }
+
+    private byte[] archiveBlob(RaidStats raid) {
+        byte[] data = toArray(encode(raid));
+        return settings.isCompress() ? RaidArchive.deflate(data, 0, data.length) : data;
+    }
+
+    private static List<ArchivedRaid> readArchived(PreparedStatement statement) throws SQLException {
+        List<ArchivedRaid> raids = new ArrayList<>();
+        try (ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                raids.add(new ArchivedRaid(UUID.fromString(result.getString(2)), result.getString(3), result.getString(4),
+                        result.getLong(5), result.getLong(1)));
+            }
+        }
+        return raids;
+    }
+
+    private static ByteBuffer encode(RaidStats raid) {
+        RaidBinaryFormat format = new RaidBinaryFormat();
+        return format.writeFile(Collections.singletonList(format.encode(raid)));
+    }
+
+    private RaidStats decode(byte[] data) throws IOException {
+        List<RaidStats> raids = RaidBinaryFormat.readFile(ByteBuffer.wrap(data), logger);
+        return raids.isEmpty() ? null : raids.get(0);
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        ByteBuffer copy = buffer.duplicate();
+        byte[] bytes = new byte[copy.remaining()];
+        copy.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Runs a read on the calling thread with a pooled connection.
+     */
+    private <T> T read(SqlTask<T> task) throws IOException {
+        Connection connection = pool.borrow();
+        try {
+            return task.run(connection);
+        } catch (SQLException e) {
+            throw new IOException(e);
+        } finally {
+            pool.release(connection);
+        }
+    }
+
+    /**
+     * Runs a write as one transaction on the writer thread and waits for it.
+     */
+    private <T> T write(SqlTask<T> task) throws IOException {
+        Future<T> future;
+        try {
+            future = writer.submit(() -> {
+                Connection connection = pool.borrow();
+                try {
+                    connection.setAutoCommit(false);
+                    T result = task.run(connection);
+                    connection.commit();
+                    return result;
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                    pool.release(connection);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new IOException("The database is closed", e);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a database write", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * A unit of work on a database connection.
+     */
+    @FunctionalInterface
+    private interface SqlTask<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Fixed size pool of connections, opened on first use.
+     */
+    private static final class ConnectionPool {
+        private final String url;
+        private final BlockingQueue<Connection> idle;
+        private final List<Connection> all = new ArrayList<>();
+        private final int size;
+
+        private ConnectionPool(String url, int size) {
+            this.url = url;
+            this.size = size;
+            this.idle = new ArrayBlockingQueue<>(size);
+        }
+
+        private Connection borrow() throws IOException {
+            Connection connection = idle.poll();
+            if (connection != null) return connection;
+
+            synchronized (this) {
+                if (all.size() < size) {
+                    connection = open();
+                    all.add(connection);
+                    return connection;
+                }
+            }
+            try {
+                connection = idle.poll(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for a database connection", e);
+            }
+            if (connection == null) throw new IOException("Timed out waiting for a database connection");
+            return connection;
+        }
+
+        private void release(Connection connection) {
+            idle.offer(connection);
+        }
+
+        private Connection open() throws IOException {
+            try {
+                Connection connection = DriverManager.getConnection(url);
+                try (Statement statement = connection.createStatement()) {
+                    // Readers never block the writer, and waits on a locked database instead of failing
+                    statement.execute("PRAGMA journal_mode=WAL");
+                    // Every commit is synced, the stat journal is deleted right after a save and archives are final
+                    statement.execute("PRAGMA synchronous=FULL");
+                    statement.execute("PRAGMA busy_timeout=5000");
+                }
+                return connection;
+            } catch (SQLException e) {
+                throw new IOException("Failed to open the database at " + url, e);
+            }
+        }
+
+        private synchronized void close() {
+            for (Connection connection : all) {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                    // Closing anyway
+                }
+            }
+            all.clear();
+            idle.clear();
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package net.vulcandev.raidstats.data;
+
+import net.vulcandev.raidstats.objects.RaidStatType;
+import net.vulcandev.raidstats.objects.RaidStats;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Append-only journal of raid changes made since the last checkpoint.
+ * Records are buffered in memory and written with a single fsync per group commit interval. The journal is
+ * split into numbered segments; a checkpoint rotates to a new segment and deletes the older ones once the
+ * snapshot covering them is on disk. Each saved raid records the last segment its stats include, so
+ * replaying a segment twice never counts a change twice.
+ * Appends, flushes and rotation must be called from one thread at a time, which the stats pipeline's
+ * apply lock guarantees.
+ */
+public class StatJournal {
+    private static final String SUFFIX = ".journal";
+
+    // Record types
+    private static final byte STAT = 1;
+    private static final byte RAID_START = 2;
+    private static final byte GRACE = 3;
+    private static final byte RAID_END = 4;
+
+    private static final RaidStatType[] STAT_TYPES = RaidStatType.values();
+
+    private final File folder;
+    private final String prefix;
+    private final long flushIntervalMillis;
+    private final Logger logger;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+    private final DataOutputStream out = new DataOutputStream(buffer);
+
+    private long segment;
+    private FileChannel channel;
+    private long lastFlush;
+    // Bytes in every segment still on disk, grown by flushes and shrunk by the checkpoint thread
+    private final AtomicLong length = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Opens a new segment after any segments already on disk, leaving those to be replayed.
+     *
+     * @param folder Folder holding the journal segments
+     * @param prefix File name prefix of the segments
+     * @param flushIntervalMillis Group commit interval
+     */
+    public StatJournal(File folder, String prefix, long flushIntervalMillis, Logger logger) throws IOException {
+        this.folder = folder;
+        this.prefix = prefix;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.logger = logger;
+
+        long last = 0L;
+        long existing = 0L;
+        for (Map.Entry<Long, File> entry : listSegments().entrySet()) {
+            last = entry.getKey();
+            existing += entry.getValue().length();
+        }
+        this.length.set(existing);
+        this.segment = last + 1;
+        this.channel = open(segment);
+        this.lastFlush = System.currentTimeMillis();
+    }
+
+    /**
+     * Records a stat change applied to a raid.
+     */
+    public void appendStat(RaidStats raid, String faction, UUID player, RaidStatType stat, double amount) {
+        if (closed) return;
+        try {
+            out.writeByte(STAT);
+            writeUUID(raid.getId());
+            out.writeUTF(faction);
+            writeUUID(player);
+            out.writeByte(stat.ordinal());
+            out.writeDouble(amount);
+        } catch (IOException e) {
+            // Writes go to memory and cannot fail
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Records a new raid being tracked.
+     */
+    public void appendRaidStart(RaidStats raid) {
+        if (closed) return;
+        try {
+            out.writeByte(RAID_START);
+            writeUUID(raid.getId());
+            out.writeUTF(raid.getRaidingFaction());
+            out.writeUTF(raid.getDefendingFaction());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Records a raid entering grace period.
+     */
+    public void appendGrace(RaidStats raid) {
+        if (closed) return;
+        try {
+            out.writeByte(GRACE);
+            writeUUID(raid.getId());
+            out.writeLong(raid.getPurgeTime());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Records a raid no longer being tracked.
+     */
+    public void appendRaidEnd(RaidStats raid) {
+        if (closed) return;
+        try {
+            out.writeByte(RAID_END);
+            writeUUID(raid.getId());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes and fsyncs the buffered records if the group commit interval has passed.
+     */
+    public void flushIfDue() {
+        if (System.currentTimeMillis() - lastFlush < flushIntervalMillis) return;
+        try {
+            flush();
+        } catch (IOException e) {
+            logger.warning("Failed to flush the stat journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes and fsyncs the buffered records.
+     */
+    public void flush() throws IOException {
+        lastFlush = System.currentTimeMillis();
+        if (closed || buffer.size() == 0) return;
+
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) channel.write(bytes);
+        channel.force(false);
+        length.addAndGet(buffer.size());
+        buffer.reset();
+    }
+
+    /**
+     * Flushes the current segment and starts a new one.
+     *
+     * @return The new segment, every change in older segments is already applied to the raids
+     */
+    public long rotate() throws IOException {
+        flush();
+        channel.close();
+        channel = open(++segment);
+        return segment;
+    }
+
+    /**
+     * Deletes every segment before the given one, once a snapshot including them is on disk.
+     */
+    public void deleteBefore(long segment) {
+        for (Map.Entry<Long, File> entry : listSegments().entrySet()) {
+            if (entry.getKey() >= segment) break;
+            long size = entry.getValue().length();
+            if (entry.getValue().delete()) length.addAndGet(-size);
+        }
+    }
+
+    /**
+     * Gets the number of bytes in every segment on disk, excluding records not flushed yet.
+     */
+    public long getLength() {
+        return length.get();
+    }
+
+    /**
+     * Flushes any buffered records and closes the journal, later appends are ignored.
+     */
+    public void close() throws IOException {
+        if (closed) return;
+        flush();
+        closed = true;
+        channel.close();
+    }
+
+    /**
+     * Replays every segment written before this journal was opened on top of the loaded raids.
+     * Changes already included in a raid's snapshot are skipped, raids started after the snapshot are created
+     * and raids that ended are removed. A torn record at the end of a segment ends that segment.
+     *
+     * @param raids Loaded raids by UUID, modified in place
+     * @return The number of records applied
+     */
+    public int replay(Map<UUID, RaidStats> raids) {
+        int applied = 0;
+        for (Map.Entry<Long, File> entry : listSegments().entrySet()) {
+            long fileSegment = entry.getKey();
+            if (fileSegment >= segment) break;
+
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(entry.getValue())))) {
+                while (true) {
+                    int type = in.read();
+                    if (type == -1) break;
+                    if (replayRecord(type, in, raids, fileSegment)) applied++;
+                }
+            } catch (EOFException e) {
+                logger.warning("Stat journal " + entry.getValue().getName() + " ends with an incomplete record, ignoring it");
+            } catch (IOException | IllegalArgumentException e) {
+                logger.warning("Stopped replaying stat journal " + entry.getValue().getName() + ": " + e.getMessage());
+            }
+        }
+        return applied;
+    }
+
+    private boolean replayRecord(int type, DataInputStream in, Map<UUID, RaidStats> raids, long fileSegment) throws IOException {
+        UUID raidId = readUUID(in);
+        RaidStats raid = raids.get(raidId);
+        boolean applies = raid != null && fileSegment > raid.getJournalSegment();
+
+        switch (type) {
+            case STAT: {
+                String faction = in.readUTF();
+                UUID player = readUUID(in);
+                int stat = in.readUnsignedByte();
+                double amount = in.readDouble();
+                if (stat >= STAT_TYPES.length) throw new IllegalArgumentException("Unknown stat " + stat);
+                if (!applies) return false;
+
+                applyStat(raid, faction, player, STAT_TYPES[stat], amount);
+                return true;
+            }
+            case RAID_START: {
+                String raidingFaction = in.readUTF();
+                String defendingFaction = in.readUTF();
+                if (raid != null) return false;
+
+                raids.put(raidId, new RaidStats(raidId, raidingFaction, defendingFaction, null));
+                return true;
+            }
+            case GRACE: {
+                long purgeTime = in.readLong();
+                if (!applies) return false;
+
+                raid.setPurgeTime(purgeTime);
+                return true;
+            }
+            case RAID_END:
+                if (!applies) return false;
+
+                raids.remove(raidId);
+                return true;
+            default:
+                throw new IllegalArgumentException("Unknown record type " + type);
+        }
+    }
+
+    private void applyStat(RaidStats raid, String faction, UUID player, RaidStatType stat, double amount) {
+        switch (stat) {
+            case KILLS:
+                raid.addKill(faction, player, (int) amount);
+                break;
+            case DEATHS:
+                raid.addDeath(faction, player, (int) amount);
+                break;
+            case DAMAGE_GIVEN:
+                raid.addDamageGiven(faction, player, amount);
+                break;
+            case DAMAGE_TAKEN:
+                raid.addDamageTaken(faction, player, amount);
+                break;
+            case BLOCKS_PLACED:
+                raid.addBlocksPlaced(faction, player);
+                break;
+            default:
+                // Hits are recorded together with damage
+                break;
+        }
+    }
+
+    /**
+     * Lists the segments on disk in order.
+     */
+    private SortedMap<Long, File> listSegments() {
+        SortedMap<Long, File> segments = new TreeMap<>();
+        File[] files = folder.listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(SUFFIX));
+        if (files == null) return segments;
+
+        for (File file : files) {
+            String name = file.getName();
+            try {
+                segments.put(Long.parseLong(name.substring(prefix.length(), name.length() - SUFFIX.length())), file);
+            } catch (NumberFormatException ignored) {
+                // Not a segment
+            }
+        }
+        return segments;
+    }
+
+    private FileChannel open(long segment) throws IOException {
+        File file = new File(folder, prefix + segment + SUFFIX);
+        return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void writeUUID(UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUUID(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+}
@@ -0,0 +1,138 @@
+package net.vulcandev.raidstats.gui;
+
+import lombok.Getter;
+import me.plugin.libs.YamlDocument;
+import net.vulcandev.raidstats.objects.MessageTemplate;
+import net.vulcandev.raidstats.objects.RaidStatType;
+import net.xantharddev.vulcanlib.libs.Colour;
+import net.xantharddev.vulcanlib.libs.SimpleItem;
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The parts of the raid GUI that only depend on the config.
+ * Parsed once per config load, so opening a GUI reads no config keys and builds no static items. Titles and
+ * lore lines are compiled into {@link MessageTemplate}s.
+ */
+@Getter
+public class RaidGUILayout {
+    // Placeholders of the title
+    public static final String[] TITLE_PLACEHOLDERS = {"raiding_name", "defending_name"};
+    // Stats of the overall item, each exists once with the defending_ and once with the attacking_ prefix
+    public static final String[] OVERALL_STATS = {"kills", "deaths", "blocks_placed", "damage_dealt", "damage_taken",
+            "damage_dealt_hearts", "damage_taken_hearts", "damage_dealt_hits", "damage_taken_hits"};
+    public static final String[] OVERALL_PLACEHOLDERS = overallPlaceholders();
+    // Placeholders of rank lines, hearts and hits only exist for damage stats
+    public static final String[] RANK_PLACEHOLDERS = {"rank", "player_name", "stat_value", "color", "hearts", "hits"};
+    private static final int RANK_DAMAGE_PLACEHOLDERS = 4;
+    // Lore lines replaced by the ranks of a faction
+    public static final MessageTemplate RAIDING_RANKS = MessageTemplate.compile("{raiding_ranks}");
+    public static final MessageTemplate DEFENDING_RANKS = MessageTemplate.compile("{defending_ranks}");
+
+    private final MessageTemplate title;
+    private final int size;
+    private final int closeSlot;
+    private final SimpleItem closeItem;
+    private final SimpleItem fillerItem;
+    // The {color} of rank lines
+    private final String raidColour;
+    private final String defendColour;
+    private final List<StatSlot> statSlots;
+
+    private RaidGUILayout(YamlDocument config) {
+        this.title = MessageTemplate.compile(config.getString("gui.title", "&7{faction_name}'s Raid Stats"), TITLE_PLACEHOLDERS);
+        this.size = config.getInt("gui.size", 3);
+
+        // Close Button Configuration
+        this.closeSlot = config.getInt("gui.close.slot", 22);
+        this.closeItem = SimpleItem.builder()
+                .setName(config.getString("gui.close.name", "&cClose"))
+                .setMaterial(Material.valueOf(config.getString("gui.close.material", "SKULL_ITEM")))
+                .setDamage(config.getByte("gui.close.damage"))
+                .setUrl(config.getString("gui.close.url"))
+                .build();
+
+        // Filler Item Configuration
+        this.fillerItem = SimpleItem.builder()
+                .setName(config.getString("gui.filler.name", "&7"))
+                .setMaterial(Material.valueOf(config.getString("gui.filler.material", "STAINED_GLASS_PANE")))
+                .setDamage(config.getByte("gui.filler.damage"))
+                .build();
+
+        this.raidColour = Colour.colour(config.getString("gui.raidColour", "&c"));
+        this.defendColour = Colour.colour(config.getString("gui.defendColour", "&d"));
+
+        List<StatSlot> slots = new ArrayList<>();
+        for (Object key : config.getSection("gui.stats").getKeys(false)) {
+            slots.add(new StatSlot(config, (String) key));
+        }
+        this.statSlots = Collections.unmodifiableList(slots);
+    }
+
+    private static String[] overallPlaceholders() {
+        String[] placeholders = new String[OVERALL_STATS.length * 2];
+        for (int i = 0; i < OVERALL_STATS.length; i++) {
+            placeholders[i] = "defending_" + OVERALL_STATS[i];
+            placeholders[OVERALL_STATS.length + i] = "attacking_" + OVERALL_STATS[i];
+        }
+        return placeholders;
+    }
+
+    /**
+     * Parses the GUI section of the config.
+     */
+    public static RaidGUILayout fromConfig(YamlDocument config) {
+        return new RaidGUILayout(config);
+    }
+
+    /**
+     * A stat item from the config, with its lore lines compiled.
+     * Lore lines of ranking items are either constant or one of the rank markers.
+     */
+    @Getter
+    public static final class StatSlot {
+        private final String key;
+        // Null for the overall item
+        private final RaidStatType statType;
+        private final int slot;
+        private final Material material;
+        private final byte damage;
+        private final String name;
+        private final String url;
+        private final List<MessageTemplate> lore;
+        // Null for the overall item
+        private final MessageTemplate rankFormat;
+
+        private StatSlot(YamlDocument config, String key) {
+            String basePath = "gui.stats." + key;
+            this.key = key;
+            this.statType = key.equalsIgnoreCase("overall") ? null : RaidStatType.valueOf(key.toUpperCase());
+            this.slot = config.getInt(basePath + ".slot");
+            this.material = Material.valueOf(config.getString(basePath + ".material", "STONE").toUpperCase());
+            this.damage = config.getByte(basePath + ".damage");
+            this.name = config.getString(basePath + ".name", "&7Unknown Stat");
+            this.url = config.getString(basePath + ".url", "");
+            boolean damage = statType == RaidStatType.DAMAGE_GIVEN || statType == RaidStatType.DAMAGE_TAKEN;
+            this.rankFormat = statType == null ? null : MessageTemplate.compile(config.getString(basePath + ".rank"),
+                    damage ? RANK_PLACEHOLDERS : Arrays.copyOf(RANK_PLACEHOLDERS, RANK_DAMAGE_PLACEHOLDERS));
+
+            List<MessageTemplate> lore = new ArrayList<>();
+            for (String line : config.getStringList(basePath + ".lore")) {
+                if (statType == null) {
+                    lore.add(MessageTemplate.compile(line, OVERALL_PLACEHOLDERS));
+                } else if (line.contains("{raiding_ranks}")) {
+                    lore.add(RAIDING_RANKS);
+                } else if (line.contains("{defending_ranks}")) {
+                    lore.add(DEFENDING_RANKS);
+                } else {
+                    lore.add(MessageTemplate.compile(line));
+                }
+            }
+            this.lore = Collections.unmodifiableList(lore);
+        }
+    }
+}
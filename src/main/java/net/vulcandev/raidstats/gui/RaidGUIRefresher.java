@@ -0,0 +1,129 @@
+package net.vulcandev.raidstats.gui;
+
+import net.vulcandev.raidstats.objects.RaidStats;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+
+/**
+ * Keeps open raid GUIs up to date while the raid goes on.
+ * Viewers are grouped by raid, and each frame a raid whose render is stale is rendered once for all of its
+ * viewers. Only the stat slots whose lore differs from the previous frame are pushed to the viewers'
+ * inventories, by updating the lore of the item already in the slot. Runs on the main thread.
+ */
+public class RaidGUIRefresher {
+    private final net.vulcandev.raidstats.VulcanRaidStats plugin;
+    // Open GUIs per raid, only touched on the main thread
+    private final Map<UUID, Viewers> viewers = new HashMap<>();
+    private BukkitTask refreshTask;
+
+    public RaidGUIRefresher(net.vulcandev.raidstats.VulcanRaidStats plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts refreshing at the configured rate, a rate of 0 keeps GUIs static.
+     */
+    public void start() {
+        int intervalTicks = plugin.conf().getInt("gui.refresh-ticks", 20);
+        if (intervalTicks <= 0) return;
+        refreshTask = Bukkit.getScheduler().runTaskTimer(plugin, this::refresh, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Stops refreshing and forgets every viewer.
+     */
+    public void stop() {
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
+        viewers.clear();
+    }
+
+    /**
+     * Opens a raid's GUI for a player and keeps it refreshed until they close it.
+     * Must be called on the main thread.
+     */
+    public void open(RaidStats raid, Player player) {
+        RaidGUI gui = new RaidGUI(plugin, raid, player);
+        gui.open();
+        if (refreshTask == null) return;
+
+        Viewers group = viewers.computeIfAbsent(raid.getId(), id -> new Viewers(raid));
+        // Diff against the oldest render still shown, a newer viewer only gets the same items pushed again
+        if (group.render == null) group.render = gui.getRender();
+        group.inventories.put(player.getUniqueId(), player.getOpenInventory().getTopInventory());
+    }
+
+    /**
+     * Renders each watched raid that changed once and pushes the changed slots to its viewers.
+     */
+    private void refresh() {
+        Iterator<Viewers> iterator = viewers.values().iterator();
+        while (iterator.hasNext()) {
+            Viewers group = iterator.next();
+            group.dropClosed();
+            if (group.inventories.isEmpty()) {
+                iterator.remove();
+                continue;
+            }
+            if (plugin.getGuiRenderer().isCurrent(group.render)) continue;
+
+            RaidGUIRenderer.Render next = plugin.getGuiRenderer().render(group.raid);
+            RaidGUIRenderer.Render previous = group.render;
+            group.render = next;
+            // The slots moved with a config reload, the viewers keep what they see
+            if (next == previous || next.getLayout() != previous.getLayout()) continue;
+
+            Map<Integer, List<String>> changed = new HashMap<>();
+            for (Map.Entry<Integer, List<String>> slot : next.getLore().entrySet()) {
+                if (!slot.getValue().equals(previous.getLore().get(slot.getKey()))) {
+                    changed.put(slot.getKey(), slot.getValue());
+                }
+            }
+            if (changed.isEmpty()) continue;
+
+            for (Inventory inventory : group.inventories.values()) {
+                for (Map.Entry<Integer, List<String>> slot : changed.entrySet()) {
+                    ItemStack item = inventory.getItem(slot.getKey());
+                    if (item == null) continue;
+                    ItemMeta meta = item.getItemMeta();
+                    if (meta == null) continue;
+
+                    meta.setLore(slot.getValue());
+                    item.setItemMeta(meta);
+                    inventory.setItem(slot.getKey(), item);
+                }
+            }
+        }
+    }
+
+    /**
+     * The players viewing one raid's GUI and the render their items were last updated to.
+     */
+    private static final class Viewers {
+        private final RaidStats raid;
+        private final Map<UUID, Inventory> inventories = new HashMap<>();
+        private RaidGUIRenderer.Render render;
+
+        private Viewers(RaidStats raid) {
+            this.raid = raid;
+        }
+
+        /**
+         * Forgets players who logged out or no longer have this GUI open.
+         */
+        private void dropClosed() {
+            inventories.entrySet().removeIf(viewer -> {
+                Player player = Bukkit.getPlayer(viewer.getKey());
+                return player == null || player.getOpenInventory().getTopInventory() != viewer.getValue();
+            });
+        }
+    }
+}
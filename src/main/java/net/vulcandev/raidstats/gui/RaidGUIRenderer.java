@@ -0,0 +1,265 @@
+package net.vulcandev.raidstats.gui;
+
+import com.massivecraft.factions.Faction;
+import com.massivecraft.factions.Factions;
+import lombok.Getter;
+import me.plugin.libs.YamlDocument;
+import net.vulcandev.raidstats.manager.NameCache;
+import net.vulcandev.raidstats.objects.MessageTemplate;
+import net.vulcandev.raidstats.objects.PlayerStats;
+import net.vulcandev.raidstats.objects.RaidStatType;
+import net.vulcandev.raidstats.objects.RaidStats;
+import net.vulcandev.raidstats.objects.StatTotals;
+import net.xantharddev.vulcanlib.libs.SimpleItem;
+
+import java.util.*;
+
+/**
+ * Renders the title and items of raid GUIs.
+ * Each raid's render is cached together with the raid's version, so opening a GUI again before any stat
+ * changed reuses the items instead of ranking players again. Names come from the {@link NameCache}, and renders
+ * are redone once a looked up name arrives so placeholders get replaced. The static parts come from a {@link RaidGUILayout}
+ * parsed once per config load.
+ */
+public class RaidGUIRenderer {
+    private static final int TOP_PLAYERS_LIMIT = 7;
+    private static final int SLOTS_PER_ROW = 9;
+    private static final int HEARTS_DIVISOR = 2;
+    // Max raids with a cached render
+    private static final int CACHE_SIZE = 128;
+
+    private final NameCache nameCache;
+    @Getter
+    private volatile RaidGUILayout layout;
+    // Least recently opened raids are evicted first
+    private final Map<UUID, Render> renders = new LinkedHashMap<UUID, Render>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Render> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public RaidGUIRenderer(YamlDocument config, NameCache nameCache) {
+        this.nameCache = nameCache;
+        reload(config);
+    }
+
+    /**
+     * Parses the layout again and drops every cached render.
+     */
+    public void reload(YamlDocument config) {
+        RaidGUILayout reloaded = RaidGUILayout.fromConfig(config);
+        synchronized (renders) {
+            layout = reloaded;
+            renders.clear();
+        }
+    }
+
+    /**
+     * Gets the render of a raid, reusing the cached one if the raid did not change since.
+     */
+    public Render render(RaidStats raid) {
+        RaidGUILayout current = layout;
+        // Read before rendering, a change during the render makes the next open render again
+        long version = raid.getVersion();
+        long namesVersion = nameCache.getVersion();
+        synchronized (renders) {
+            Render cached = renders.get(raid.getId());
+            if (cached != null && cached.raid == raid && cached.layout == current && isCurrent(cached, version, namesVersion)) return cached;
+        }
+
+        Map<Integer, List<String>> lore = renderLore(current, raid);
+        Render render = new Render(raid, version, namesVersion, current, renderTitle(current, raid), renderItems(current, lore), lore);
+        synchronized (renders) {
+            if (layout == current) renders.put(raid.getId(), render);
+        }
+        return render;
+    }
+
+    /**
+     * Checks if a render still shows its raid's current stats and names.
+     */
+    public boolean isCurrent(Render render) {
+        return isCurrent(render, render.raid.getVersion(), nameCache.getVersion());
+    }
+
+    private static boolean isCurrent(Render render, long version, long namesVersion) {
+        return render.version == version && render.namesVersion == namesVersion;
+    }
+
+    /**
+     * Drops the cached render of a raid.
+     */
+    public void invalidate(UUID raidId) {
+        synchronized (renders) {
+            renders.remove(raidId);
+        }
+    }
+
+    private static String renderTitle(RaidGUILayout layout, RaidStats raid) {
+        return layout.getTitle().render(factionTag(raid.getRaidingFaction()), factionTag(raid.getDefendingFaction()));
+    }
+
+    /**
+     * Gets a faction's tag, falling back to its ID if it was disbanded since the raid.
+     */
+    private static String factionTag(String factionId) {
+        Faction faction = Factions.getInstance().getFactionById(factionId);
+        return faction == null ? factionId : faction.getTag();
+    }
+
+    /**
+     * Fills in the lore of every stat slot, the only part of the items that depends on the raid.
+     */
+    private Map<Integer, List<String>> renderLore(RaidGUILayout layout, RaidStats raid) {
+        Map<Integer, List<String>> lore = new HashMap<>();
+        for (RaidGUILayout.StatSlot slot : layout.getStatSlots()) {
+            lore.put(slot.getSlot(), slot.getStatType() == null
+                ? replaceOverallPlaceholders(raid, slot.getLore())
+                : generateRankingLore(layout, raid, slot));
+        }
+        return Collections.unmodifiableMap(lore);
+    }
+
+    private static Map<Integer, SimpleItem> renderItems(RaidGUILayout layout, Map<Integer, List<String>> lore) {
+        Map<Integer, SimpleItem> items = new HashMap<>();
+        for (RaidGUILayout.StatSlot slot : layout.getStatSlots()) {
+            items.put(slot.getSlot(), createStatItem(slot, lore.get(slot.getSlot())));
+        }
+
+        // Fill empty slots with filler items
+        for (int i = 0; i < layout.getSize() * SLOTS_PER_ROW; i++) items.putIfAbsent(i, layout.getFillerItem());
+
+        return Collections.unmodifiableMap(items);
+    }
+
+    /**
+     * Creates a stat display item with its rendered lore.
+     */
+    private static SimpleItem createStatItem(RaidGUILayout.StatSlot slot, List<String> processedLore) {
+        return SimpleItem.builder()
+                .setName(slot.getName())
+                .setMaterial(slot.getMaterial())
+                .setDamage(slot.getDamage())
+                .setLore(processedLore)
+                .setUrl(slot.getUrl())
+                .build();
+    }
+
+    /**
+     * Generates lore with player rankings for a specific stat type.
+     */
+    private List<String> generateRankingLore(RaidGUILayout layout, RaidStats raid, RaidGUILayout.StatSlot slot) {
+        RaidStatType statType = slot.getStatType();
+        List<String> updatedLore = new ArrayList<>();
+
+        Map<UUID, PlayerStats> defendingTopStats = raid.getTopStats(
+            raid.getDefendingFaction(), statType, TOP_PLAYERS_LIMIT);
+        Map<UUID, PlayerStats> raidingTopStats = statType != RaidStatType.BLOCKS_PLACED
+            ? raid.getTopStats(raid.getRaidingFaction(), statType, TOP_PLAYERS_LIMIT)
+            : Collections.emptyMap();
+
+        for (MessageTemplate line : slot.getLore()) {
+            if (line == RaidGUILayout.RAIDING_RANKS) {
+                generateRankLines(updatedLore, raidingTopStats, statType, slot.getRankFormat(), layout.getRaidColour());
+            } else if (line == RaidGUILayout.DEFENDING_RANKS) {
+                generateRankLines(updatedLore, defendingTopStats, statType, slot.getRankFormat(), layout.getDefendColour());
+            } else {
+                updatedLore.add(line.render());
+            }
+        }
+
+        return updatedLore;
+    }
+
+    /**
+     * Fills in the overall stats of both factions, formatting each value once for every line.
+     */
+    private static List<String> replaceOverallPlaceholders(RaidStats raid, List<MessageTemplate> lore) {
+        String[] values = new String[RaidGUILayout.OVERALL_PLACEHOLDERS.length];
+        fillFactionValues(values, 0, raid.getTotals(raid.getDefendingFaction()));
+        fillFactionValues(values, RaidGUILayout.OVERALL_STATS.length, raid.getTotals(raid.getRaidingFaction()));
+
+        List<String> updatedLines = new ArrayList<>(lore.size());
+        for (MessageTemplate line : lore) updatedLines.add(line.render(values));
+        return updatedLines;
+    }
+
+    /**
+     * Formats the stats of one faction in the order of {@link RaidGUILayout#OVERALL_STATS}.
+     */
+    private static void fillFactionValues(String[] values, int offset, StatTotals totals) {
+        long damageDealt = (long) totals.getDamageDealt();
+        long damageTaken = (long) totals.getDamageTaken();
+
+        values[offset] = formatStat(totals.getKills());
+        values[offset + 1] = formatStat(totals.getDeaths());
+        values[offset + 2] = formatStat(totals.getBlocksPlaced());
+        values[offset + 3] = formatStat(damageDealt);
+        values[offset + 4] = formatStat(damageTaken);
+        values[offset + 5] = formatStat(damageDealt / HEARTS_DIVISOR);
+        values[offset + 6] = formatStat(damageTaken / HEARTS_DIVISOR);
+        values[offset + 7] = formatStat(totals.getHitsDealt());
+        values[offset + 8] = formatStat(totals.getHitsTaken());
+    }
+
+    /**
+     * Formats a numeric stat with thousand separators.
+     */
+    private static String formatStat(long value) {return String.format("%,d", value);}
+
+    /**
+     * Generates formatted ranking lines for top players in a specific stat category.
+     * Converts damage values to hearts and applies faction colors.
+     */
+    private void generateRankLines(List<String> lore, Map<UUID, PlayerStats> stats, RaidStatType statType,
+                                   MessageTemplate rankFormat, String color) {
+        // In the order of RaidGUILayout.RANK_PLACEHOLDERS
+        String[] values = new String[RaidGUILayout.RANK_PLACEHOLDERS.length];
+        values[3] = color;
+        boolean damage = statType == RaidStatType.DAMAGE_GIVEN || statType == RaidStatType.DAMAGE_TAKEN;
+        int rank = 1;
+
+        for (Map.Entry<UUID, PlayerStats> entryStat : stats.entrySet()) {
+            PlayerStats playerStats = entryStat.getValue();
+            int statValue = statType.getValue(playerStats);
+
+            values[0] = formatStat(rank);
+            values[1] = nameCache.getName(entryStat.getKey());
+            values[2] = formatStat(statValue);
+            if (damage) {
+                values[4] = String.format("%,.0f", statValue / (double) HEARTS_DIVISOR);
+                values[5] = formatStat(statType == RaidStatType.DAMAGE_GIVEN ? playerStats.getHitsDealt() : playerStats.getHitsTaken());
+            }
+
+            lore.add(rankFormat.render(values));
+            rank++;
+        }
+    }
+
+    /**
+     * A raid's rendered title and items, valid while the raid's version and the layout stay the same.
+     */
+    @Getter
+    public static final class Render {
+        private final RaidStats raid;
+        private final long version;
+        private final long namesVersion;
+        private final RaidGUILayout layout;
+        private final String title;
+        private final Map<Integer, SimpleItem> items;
+        // Lore of each stat slot, compared between renders to find the slots that changed
+        private final Map<Integer, List<String>> lore;
+
+        private Render(RaidStats raid, long version, long namesVersion, RaidGUILayout layout,
+                       String title, Map<Integer, SimpleItem> items, Map<Integer, List<String>> lore) {
+            this.raid = raid;
+            this.version = version;
+            this.namesVersion = namesVersion;
+            this.layout = layout;
+            this.title = title;
+            this.items = items;
+            this.lore = lore;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package net.vulcandev.raidstats.listener;
+
+import com.massivecraft.factions.FLocation;
+import com.massivecraft.factions.event.FactionDisbandEvent;
+import com.massivecraft.factions.event.LandClaimEvent;
+import com.massivecraft.factions.event.LandUnclaimAllEvent;
+import com.massivecraft.factions.event.LandUnclaimEvent;
+import net.vulcandev.raidstats.VulcanRaidStats;
+import net.vulcandev.raidstats.manager.ClaimCache;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * Keeps the {@link ClaimCache} in sync with claim changes.
+ * Factions fires land events before updating the board, so chunks are dropped now and again a tick later.
+ * Changes without an event (such as base region edits) are picked up by a periodic full refresh.
+ */
+public class ClaimCacheListener implements Listener {
+    private final VulcanRaidStats plugin;
+    private final ClaimCache claimCache;
+
+    public ClaimCacheListener(VulcanRaidStats plugin, ClaimCache claimCache) {
+        this.plugin = plugin;
+        this.claimCache = claimCache;
+
+        long refreshTicks = plugin.conf().getInt("claim-cache.refresh-seconds", 60) * 20L;
+        plugin.getServer().getScheduler().runTaskTimer(plugin, claimCache::clear, refreshTicks, refreshTicks);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onClaim(LandClaimEvent event) {
+        invalidate(event.getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onUnclaim(LandUnclaimEvent event) {
+        invalidate(event.getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onUnclaimAll(LandUnclaimAllEvent event) {
+        clear();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDisband(FactionDisbandEvent event) {
+        clear();
+    }
+
+    private void invalidate(FLocation location) {
+        claimCache.invalidate(location);
+        plugin.getServer().getScheduler().runTask(plugin, () -> claimCache.invalidate(location));
+    }
+
+    private void clear() {
+        claimCache.clear();
+        plugin.getServer().getScheduler().runTask(plugin, claimCache::clear);
+    }
+}
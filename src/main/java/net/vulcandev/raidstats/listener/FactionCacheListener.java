@@ -0,0 +1,77 @@
+package net.vulcandev.raidstats.listener;
+
+import com.massivecraft.factions.FPlayer;
+import com.massivecraft.factions.event.FPlayerJoinEvent;
+import com.massivecraft.factions.event.FPlayerLeaveEvent;
+import com.massivecraft.factions.event.FactionCreateEvent;
+import com.massivecraft.factions.event.FactionDisbandEvent;
+import net.vulcandev.raidstats.VulcanRaidStats;
+import net.vulcandev.raidstats.manager.FactionCache;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.UUID;
+
+/**
+ * Keeps the {@link FactionCache} in sync with player sessions and faction membership changes.
+ * Factions fires its membership events before applying the change, so entries are dropped rather than
+ * overwritten and dropped again a tick later in case something looked the player up in between.
+ */
+public class FactionCacheListener implements Listener {
+    private final VulcanRaidStats plugin;
+    private final FactionCache factionCache;
+
+    public FactionCacheListener(VulcanRaidStats plugin, FactionCache factionCache) {
+        this.plugin = plugin;
+        this.factionCache = factionCache;
+
+        // Cover players already online after a reload
+        for (Player player : Bukkit.getOnlinePlayers()) factionCache.load(player);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        factionCache.load(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        factionCache.invalidate(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFactionJoin(FPlayerJoinEvent event) {
+        invalidate(event.getfPlayer());
+    }
+
+    /**
+     * Covers leaving, being kicked and disband removals.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFactionLeave(FPlayerLeaveEvent event) {
+        invalidate(event.getfPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFactionCreate(FactionCreateEvent event) {
+        invalidate(event.getFPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFactionDisband(FactionDisbandEvent event) {
+        for (FPlayer member : event.getFaction().getFPlayers()) invalidate(member);
+    }
+
+    private void invalidate(FPlayer fPlayer) {
+        if (fPlayer == null || fPlayer.getId() == null) return;
+
+        UUID playerUUID = UUID.fromString(fPlayer.getId());
+        factionCache.invalidate(playerUUID);
+        plugin.getServer().getScheduler().runTask(plugin, () -> factionCache.invalidate(playerUUID));
+    }
+}
@@ -0,0 +1,28 @@
+package net.vulcandev.raidstats.listener;
+
+import net.vulcandev.raidstats.manager.NameCache;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+/**
+ * Records player names in the {@link NameCache} as players join.
+ */
+public class NameCacheListener implements Listener {
+    private final NameCache nameCache;
+
+    public NameCacheListener(NameCache nameCache) {
+        this.nameCache = nameCache;
+
+        // Cover players already online after a reload
+        for (Player player : Bukkit.getOnlinePlayers()) nameCache.put(player.getUniqueId(), player.getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        nameCache.put(event.getPlayer().getUniqueId(), event.getPlayer().getName());
+    }
+}
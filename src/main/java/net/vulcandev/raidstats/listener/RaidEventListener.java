@@ -2,24 +2,19 @@ package net.vulcandev.raidstats.listener;
 
 import com.golfing8.kore.event.RaidEndEvent;
 import com.golfing8.kore.event.RaidStartEvent;
-import net.vulcandev.raidstats.event.RaidStatsEndEvent;
-import net.vulcandev.raidstats.manager.StatsManager;
-import net.vulcandev.raidstats.objects.RaidStats;
 import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 
 /**
  * Listens for raid lifecycle events from FactionsKore.
- * Manages raid tracking initialization and cleanup, including grace period handling.
+ * Hands raid starts and ends to the {@link net.vulcandev.raidstats.manager.RaidReconciler}, which updates only the raid they name.
  */
 public class RaidEventListener implements Listener {
     private final net.vulcandev.raidstats.VulcanRaidStats plugin;
-    private final StatsManager statsManager;
 
-    public RaidEventListener(net.vulcandev.raidstats.VulcanRaidStats plugin, StatsManager statsManager) {
+    public RaidEventListener(net.vulcandev.raidstats.VulcanRaidStats plugin) {
         this.plugin = plugin;
-        this.statsManager = statsManager;
     }
 
     /**
@@ -29,57 +24,17 @@ public class RaidEventListener implements Listener {
     @EventHandler
     public void onRaidStart(RaidStartEvent event) {
         // Running async to avoid blocking the main thread
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            String raidingFactionId = event.getFactionRaiding();
-            String defendingFactionId = event.getFactionRaided();
-
-            // Initialize stats for both factions asynchronously
-            statsManager.addRaid(new RaidStats(raidingFactionId, defendingFactionId, event.getRaid()));
-        });
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () ->
+                plugin.getReconciler().raidStarted(event.getRaid(), event.getFactionRaiding(), event.getFactionRaided()));
     }
 
     /**
      * Called when a raid ends.
-     * Handles grace period logic and schedules raid cleanup.
-     * During grace, stats are frozen to prevent padding.
+     * Puts the raid into grace or ends it once FactionsKore has updated its grace periods.
      */
     @EventHandler
     public void onRaidEnd(RaidEndEvent event) {
-        Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, () -> {
-            int graceMinutes = plugin.getRaidTimer().getGrace(event.getFactionRaided());
-
-            RaidStats raidStats = statsManager.getRaidDefendingByFacID(event.getFactionRaided());
-            if (graceMinutes <= 0) {
-                callRaidEvent(raidStats);
-                statsManager.removeRaid(event.getFactionRaiding(), event.getFactionRaided());
-                return;
-            }
-
-            // Convert grace period from minutes to milliseconds
-            long graceValueMillis = (graceMinutes + 1L) * 60L * 1000L; // graceMinutes + 1 to account for any additional time if needed
-
-            // Get the current Unix timestamp in milliseconds and calculate the grace end timestamp
-            long graceEndTimestamp = System.currentTimeMillis() + graceValueMillis;
-
-            // Set Grace to stop stat padding (Adding to stats while in grace)
-            raidStats.setPurgeTime(graceEndTimestamp);
-
-            // Schedule the task to remove the raid entirely when grace is over
-            long graceEndDelayTicks = (graceValueMillis / 50L); // Convert milliseconds to ticks (1 tick = 50ms)
-
-            Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, () -> {
-                callRaidEvent(raidStats);
-                statsManager.removeRaid(event.getFactionRaiding(), event.getFactionRaided());
-            }, graceEndDelayTicks);
-
-        }, 5L); // 5 ticks delay
-    }
-
-    /**
-     * Fires a custom RaidStatsEndEvent for other plugins to hook into.
-     */
-    private void callRaidEvent(RaidStats raidStats) {
-        RaidStatsEndEvent event = new RaidStatsEndEvent(raidStats);
-        Bukkit.getPluginManager().callEvent(event);
+        Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, () ->
+                plugin.getReconciler().raidEnded(event.getFactionRaiding(), event.getFactionRaided()), 5L); // 5 ticks delay
     }
 }
@@ -1,168 +1,117 @@
 package net.vulcandev.raidstats.listener;
 
-import com.massivecraft.factions.Board;
 import com.massivecraft.factions.FLocation;
 import com.massivecraft.factions.FPlayers;
 import com.massivecraft.factions.Faction;
 import net.vulcandev.raidstats.VulcanRaidStats;
+import net.vulcandev.raidstats.manager.ClaimCache.ChunkClaim;
 import net.vulcandev.raidstats.manager.StatsManager;
-import net.vulcandev.raidstats.objects.RaidStats;
-import org.bukkit.Bukkit;
-import org.bukkit.Location;
+import net.vulcandev.raidstats.pipeline.StatsPipeline;
+import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.PlayerDeathEvent;
 
-import java.util.List;
-
 /**
  * Tracks player statistics during active raids.
  * Monitors kills, deaths, damage, and blocks placed for both attacking and defending factions.
+ * Handlers run at MONITOR priority on the main thread once the outcome of the event is final, capture what
+ * happened into a primitive snapshot and hand it to the {@link StatsPipeline}, which applies it off the main thread.
  */
 public class StatsListener implements Listener {
     private final VulcanRaidStats plugin;
     private final StatsManager statsManager;
+    private final StatsPipeline pipeline;
 
-    public StatsListener(VulcanRaidStats plugin, StatsManager statsManager) {
+    public StatsListener(VulcanRaidStats plugin, StatsManager statsManager, StatsPipeline pipeline) {
         this.plugin = plugin;
         this.statsManager = statsManager;
+        this.pipeline = pipeline;
     }
 
     /**
      * Tracks blocks placed in enemy territory during raids.
      * Only counts blocks placed in base regions or raid outposts.
      */
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockPlace(BlockPlaceEvent event) {
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            Player player = event.getPlayer();
-            if (player == null) return;
+        Player player = event.getPlayer();
+        if (player == null) return;
 
-            Location loc = event.getBlock().getLocation();
+        Block block = event.getBlock();
 
-            Faction fac = getFactionFromLoc(event.getBlock().getLocation());
+        ChunkClaim claim = plugin.getClaimCache().get(block);
 
-            if (fac.isSystemFaction()) return;
+        if (claim.isSystem()) return;
 
-            RaidStats raid = statsManager.getRaidDefendingByFacID(fac.getId());
+        // Skip blocks that can't belong to any raid
+        if (statsManager.getRaidDefendingByFacID(claim.getOwnerId()) == null) return;
 
-            if (raid == null || raid.isGrace()) return;
+        String playerFacId = getFactionIdFromPlayer(player);
+        if (playerFacId == null) return;
 
-            if (!isInBaseRegion(getFactionFromPlayer(player), loc)) return;
+        if (!isInBaseRegion(player, playerFacId, claim, block)) return;
 
-            raid.addBlocksPlaced(fac.getId(), player.getUniqueId());
-        });
+        pipeline.submitBlockPlace(player.getUniqueId(), playerFacId, claim.getOwnerId());
     }
 
     /**
      * Kills / Death's Raid Stats Tracking
      */
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerDeath(PlayerDeathEvent event) {
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            Player deadPlayer = event.getEntity();
-            Player killerPlayer = deadPlayer.getKiller();
-
-            if (killerPlayer == null) return;
-
-            // Retrieve factions for both players
-            Faction deadFac = getFactionFromPlayer(deadPlayer);
-            Faction killerFac = getFactionFromPlayer(killerPlayer);
-            if (deadFac == null || killerFac == null) return;
-
-            // Get the list of raids between these factions (Cases for raiding each other or RPost)
-            List<RaidStats> raids = statsManager.getRaidsByFactionIds(deadFac.getId(), killerFac.getId());
-            if (raids.isEmpty()) return;
-
-            // Process each raid in the list
-            for (RaidStats raid : raids) {
-                // Skip raids in grace period
-                if (raid.isGrace()) continue;
+        Player deadPlayer = event.getEntity();
+        Player killerPlayer = deadPlayer.getKiller();
 
-                boolean isAttackerRaiding = raid.getRaidingFaction().equals(killerFac.getId());
+        if (killerPlayer == null) return;
 
-                updateKillTracking(raid, killerPlayer, deadPlayer, isAttackerRaiding);
-            }
-        });
-    }
+        // Retrieve factions for both players
+        String deadFacId = getFactionIdFromPlayer(deadPlayer);
+        String killerFacId = getFactionIdFromPlayer(killerPlayer);
+        if (deadFacId == null || killerFacId == null) return;
 
-    private void updateKillTracking(RaidStats raid, Player killerPlayer, Player deadPlayer , boolean isAttackerRaiding) {
-        String raidingFactionId = raid.getRaidingFaction();
-        String defendingFactionId = raid.getDefendingFaction();
-
-        if (isAttackerRaiding) {
-            raid.addKill(raidingFactionId, killerPlayer.getUniqueId(), 1);
-            raid.addDeath(defendingFactionId, deadPlayer.getUniqueId(), 1);
-        } else {
-            raid.addKill(defendingFactionId, killerPlayer.getUniqueId(), 1);
-            raid.addDeath(raidingFactionId, deadPlayer.getUniqueId(), 1);
-        }
+        pipeline.submitKill(killerPlayer.getUniqueId(), killerFacId, deadPlayer.getUniqueId(), deadFacId);
     }
 
     /**
      * Damage Taken / Given Raid Stats Tracking
      */
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onEntityDamageByEntity(EntityDamageByEntityEvent event) {
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            if (event.isCancelled()) return;
-
-            if (!(event.getEntity() instanceof Player)) return;
-
-            Player damagedPlayer = (Player) event.getEntity();
-            double damage = event.getDamage();
-
-            if (!(event.getDamager() instanceof Player)) return;
-
-            Player attacker = (Player) event.getDamager();
+        if (!(event.getEntity() instanceof Player)) return;
 
-            Faction damagedFac = getFactionFromPlayer(damagedPlayer);
-            Faction attackerFac = getFactionFromPlayer(attacker);
-            if (damagedFac == null || attackerFac == null) return;
+        Player damagedPlayer = (Player) event.getEntity();
 
-            List<RaidStats> raids = statsManager.getRaidsByFactionIds(damagedFac.getId(), attackerFac.getId());
-            if (raids.isEmpty()) return;
+        if (!(event.getDamager() instanceof Player)) return;
 
-            for (RaidStats raid : raids) {
-                if (raid.isGrace()) continue;
+        Player attacker = (Player) event.getDamager();
 
-                boolean isAttackerRaiding = raid.getRaidingFaction().equals(attackerFac.getId());
+        String damagedFacId = getFactionIdFromPlayer(damagedPlayer);
+        String attackerFacId = getFactionIdFromPlayer(attacker);
+        if (damagedFacId == null || attackerFacId == null) return;
 
-                updateDamageStats(raid, attacker, damagedPlayer, damage, isAttackerRaiding);
-            }
-        });
+        pipeline.submitDamage(attacker.getUniqueId(), attackerFacId, damagedPlayer.getUniqueId(), damagedFacId, event.getDamage());
     }
 
-    private void updateDamageStats(RaidStats raid, Player attacker, Player damagedPlayer, double damage, boolean isAttackerRaiding) {
-        String raidingFactionId = raid.getRaidingFaction();
-        String defendingFactionId = raid.getDefendingFaction();
-
-        if (isAttackerRaiding) {
-            raid.addDamageGiven(raidingFactionId, attacker.getUniqueId(), damage);
-            raid.addDamageTaken(defendingFactionId, damagedPlayer.getUniqueId(), damage);
-        } else {
-            raid.addDamageGiven(defendingFactionId, attacker.getUniqueId(), damage);
-            raid.addDamageTaken(raidingFactionId, damagedPlayer.getUniqueId(), damage);
-        }
-    }
-
-    private boolean isInBaseRegion(Faction fac, Location location) {
-        if (isLocInRpost(location)) return true;
-        return fac.isInBaseRegion(new FLocation(location));
-    }
-
-    private boolean isLocInRpost(Location location) {
-        return statsManager.isLocInRPost(location);
-    }
-
-    private Faction getFactionFromLoc(Location loc) {
-        return Board.getInstance().getFactionAt(new FLocation(loc));
+    /**
+     * Checks if a block is in the placing player's base region or the raiding outpost.
+     * Uses the cached flag when the player belongs to the claim owner, which is the common case.
+     */
+    private boolean isInBaseRegion(Player player, String playerFacId, ChunkClaim claim, Block block) {
+        if (claim.isOutpost() && statsManager.hasOutpostOwner()) return true;
+        if (playerFacId.equals(claim.getOwnerId())) return claim.isBaseRegion();
+        return getFactionFromPlayer(player).isInBaseRegion(new FLocation(block.getLocation()));
     }
 
     private Faction getFactionFromPlayer(Player player) {
         return FPlayers.getInstance().getByPlayer(player).getFaction();
     }
+
+    private String getFactionIdFromPlayer(Player player) {
+        return plugin.getFactionCache().getFactionId(player);
+    }
 }
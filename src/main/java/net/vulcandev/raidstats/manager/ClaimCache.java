@@ -0,0 +1,177 @@
+package net.vulcandev.raidstats.manager;
+
+import com.massivecraft.factions.Board;
+import com.massivecraft.factions.FLocation;
+import com.massivecraft.factions.Faction;
+import lombok.Getter;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caches who owns each chunk and whether it is a base region or raiding outpost claim.
+ * Keys pack the world and chunk coordinates into a single long held in an open addressing table,
+ * so a cached block check is one hash probe with no FLocation or board lookup.
+ * Only accessed from the main thread, like the Factions board it mirrors.
+ */
+public class ClaimCache {
+    private static final String OUTPOST_TAG = "RaidOutpost";
+    private static final int COORD_BITS = 26;
+    private static final long COORD_MASK = (1L << COORD_BITS) - 1;
+
+    private final Map<String, Integer> worldIndexes = new HashMap<>();
+    private final int maxEntries;
+    private long[] keys;
+    private ChunkClaim[] values;
+    private int size;
+
+    public ClaimCache(int maxEntries) {
+        this.maxEntries = Math.max(16, maxEntries);
+        reset(64);
+    }
+
+    /**
+     * Gets the claim for the chunk containing a block, loading it from the board on a miss.
+     */
+    public ChunkClaim get(Block block) {
+        return get(block.getWorld(), block.getX() >> 4, block.getZ() >> 4);
+    }
+
+    /**
+     * Gets the claim for a chunk, loading it from the board on a miss.
+     */
+    public ChunkClaim get(World world, int chunkX, int chunkZ) {
+        long key = key(world.getName(), chunkX, chunkZ);
+        int index = indexOf(key);
+        if (values[index] != null) return values[index];
+
+        ChunkClaim claim = load(new FLocation(world.getName(), chunkX, chunkZ));
+        if (size >= maxEntries) reset(keys.length);
+        put(key, claim);
+        return claim;
+    }
+
+    /**
+     * Drops the cached claim for a chunk.
+     */
+    public void invalidate(FLocation location) {
+        long key = key(location.getWorldName(), (int) location.getX(), (int) location.getZ());
+        int index = indexOf(key);
+        if (values[index] == null) return;
+
+        values[index] = null;
+        size--;
+        shiftBack(index);
+    }
+
+    /**
+     * Drops every cached claim.
+     */
+    public void clear() {
+        reset(64);
+    }
+
+    /**
+     * Gets the number of cached chunks.
+     */
+    public int size() {
+        return size;
+    }
+
+    private ChunkClaim load(FLocation location) {
+        Faction faction = Board.getInstance().getFactionAt(location);
+        if (faction == null || faction.isSystemFaction()) {
+            return new ChunkClaim(faction == null ? null : faction.getId(), true, false, faction != null && OUTPOST_TAG.equals(faction.getTag()));
+        }
+        return new ChunkClaim(faction.getId(), false, faction.isInBaseRegion(location), OUTPOST_TAG.equals(faction.getTag()));
+    }
+
+    private long key(String worldName, int chunkX, int chunkZ) {
+        Integer worldIndex = worldIndexes.get(worldName);
+        if (worldIndex == null) {
+            worldIndex = worldIndexes.size();
+            worldIndexes.put(worldName, worldIndex);
+        }
+        return ((long) worldIndex << (COORD_BITS * 2)) | ((chunkX & COORD_MASK) << COORD_BITS) | (chunkZ & COORD_MASK);
+    }
+
+    /**
+     * Finds the slot holding a key, or the empty slot where it would go.
+     */
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (values[index] != null && keys[index] != key) index = (index + 1) & mask;
+        return index;
+    }
+
+    private void put(long key, ChunkClaim claim) {
+        if ((size + 1) * 2 > keys.length) grow();
+        int index = indexOf(key);
+        if (values[index] == null) size++;
+        keys[index] = key;
+        values[index] = claim;
+    }
+
+    /**
+     * Re-seats the entries following a removed slot so probing never stops early.
+     */
+    private void shiftBack(int removed) {
+        int mask = keys.length - 1;
+        int index = (removed + 1) & mask;
+        while (values[index] != null) {
+            int home = mix(keys[index]) & mask;
+            // Move the entry back if its home slot is not between the gap and its current slot
+            if (((index - home) & mask) >= ((index - removed) & mask)) {
+                keys[removed] = keys[index];
+                values[removed] = values[index];
+                values[index] = null;
+                removed = index;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        ChunkClaim[] oldValues = values;
+        reset(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private void reset(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new ChunkClaim[capacity];
+        this.size = 0;
+    }
+
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Cached ownership details of a single chunk.
+     */
+    @Getter
+    public static final class ChunkClaim {
+        private final String ownerId;
+        // Wilderness, safezone, warzone and other system factions
+        private final boolean system;
+        // Whether the chunk is inside the owner's base region
+        private final boolean baseRegion;
+        // Whether the chunk belongs to the raiding outpost
+        private final boolean outpost;
+
+        private ChunkClaim(String ownerId, boolean system, boolean baseRegion, boolean outpost) {
+            this.ownerId = ownerId;
+            this.system = system;
+            this.baseRegion = baseRegion;
+            this.outpost = outpost;
+        }
+    }
+}
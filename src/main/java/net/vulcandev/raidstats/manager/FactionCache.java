@@ -0,0 +1,79 @@
+package net.vulcandev.raidstats.manager;
+
+import com.massivecraft.factions.FPlayer;
+import com.massivecraft.factions.FPlayers;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches which faction each online player belongs to.
+ * Filled on join and kept current by the Factions membership events, so combat tracking
+ * only falls back to the Factions storage layer on a miss.
+ */
+public class FactionCache {
+    private final Map<UUID, String> factionIds = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Gets the faction ID of a player, looking it up through Factions on a miss.
+     * Misses must be resolved on the main thread.
+     *
+     * @param player The player to resolve
+     * @return The player's faction ID, or null if Factions doesn't know the player
+     */
+    public String getFactionId(Player player) {
+        String factionId = factionIds.get(player.getUniqueId());
+        if (factionId != null) {
+            hits.incrementAndGet();
+            return factionId;
+        }
+
+        misses.incrementAndGet();
+        return load(player);
+    }
+
+    /**
+     * Looks up and caches the faction ID of a player.
+     */
+    public String load(Player player) {
+        FPlayer fPlayer = FPlayers.getInstance().getByPlayer(player);
+        if (fPlayer == null || fPlayer.getFactionId() == null) return null;
+
+        String factionId = fPlayer.getFactionId();
+        factionIds.put(player.getUniqueId(), factionId);
+        return factionId;
+    }
+
+    /**
+     * Drops a player's cached faction so the next lookup resolves it again.
+     */
+    public void invalidate(UUID playerUUID) {
+        factionIds.remove(playerUUID);
+    }
+
+    /**
+     * Drops every cached faction.
+     */
+    public void clear() {
+        factionIds.clear();
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of lookups that had to go through Factions.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,316 @@
+package net.vulcandev.raidstats.manager;
+
+import net.vulcandev.raidstats.data.ArchivedRaid;
+import net.vulcandev.raidstats.data.RaidStorage;
+import net.vulcandev.raidstats.objects.LifetimeStats;
+import net.vulcandev.raidstats.objects.RaidStats;
+import net.vulcandev.raidstats.objects.RollupTable;
+import net.vulcandev.raidstats.objects.StatTotals;
+import net.vulcandev.raidstats.objects.StatsColumns;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps lifetime stat totals per player and per faction, summed over every finished raid.
+ * Each raid is merged once, when it is archived, so lookups never touch past raids. The totals are saved to
+ * data/lifetime.dat on an async timer together with the archive position they include; raids archived after
+ * that position are merged again from the archive off the main thread on startup, so a crash between saves
+ * loses nothing.
+ */
+public class LifetimeManager {
+    // "VRSL"
+    private static final int MAGIC = 0x5652534C;
+    private static final int VERSION = 1;
+
+    private final net.vulcandev.raidstats.VulcanRaidStats plugin;
+    private final File file;
+    private final RollupTable<UUID> players = new RollupTable<>();
+    private final RollupTable<String> factions = new RollupTable<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Archive position of the last merged raid
+    private long mergedPosition = -1;
+    // Merges not saved yet, only changed under the write lock
+    private long changes;
+    private long savedChanges;
+    // Raids merged while catching up on the archive, so none is merged twice, null once caught up.
+    // Saving waits for it, the merged position may be ahead of raids not merged yet
+    private Set<UUID> catchUpMerged;
+    private BukkitTask flushTask;
+
+    public LifetimeManager(net.vulcandev.raidstats.VulcanRaidStats plugin, File dataFolder) {
+        this.plugin = plugin;
+        this.file = new File(new File(dataFolder, "data"), "lifetime.dat");
+    }
+
+    /**
+     * Loads the saved totals and merges any raids archived after they were saved off the main thread.
+     */
+    public void load(RaidStorage storage) {
+        if (file.exists()) {
+            try {
+                read(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to load lifetime stats, rebuilding them from the raid archive", e);
+                File corrupt = new File(file.getParentFile(), file.getName() + ".corrupt");
+                if (!file.renameTo(corrupt)) plugin.getLogger().warning("Failed to move " + file.getName() + " to " + corrupt.getName());
+            }
+        }
+
+        // Taken now, raids archived from here on are merged as they are archived and move the position
+        long savedPosition = mergedPosition;
+        catchUpMerged = new HashSet<>();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> catchUp(storage, savedPosition));
+    }
+
+    /**
+     * Merges the raids archived after the saved totals.
+     * If they cannot be listed the totals are not saved until a restart, which tries again.
+     */
+    private void catchUp(RaidStorage storage, long savedPosition) {
+        List<ArchivedRaid> missed;
+        try {
+            missed = storage.getArchivedAfter(savedPosition);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to list archived raids missing from lifetime stats", e);
+            return;
+        }
+        for (ArchivedRaid entry : missed) {
+            try {
+                RaidStats raid = storage.loadArchived(entry.getId());
+                if (raid != null) merge(raid, entry);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to merge archived raid " + entry.getId() + " into lifetime stats", e);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            catchUpMerged = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!missed.isEmpty()) plugin.getLogger().info("Merged " + missed.size() + " archived raids into lifetime stats");
+    }
+
+    /**
+     * Starts saving the totals on an async timer whenever a raid was merged.
+     */
+    public void start() {
+        long intervalTicks = Math.max(1, plugin.conf().getInt("lifetime.flush-seconds", 30)) * 20L;
+        flushTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::flush, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Stops the timer and saves the totals.
+     */
+    public void stop() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+    }
+
+    /**
+     * Adds the totals of a finished raid.
+     *
+     * @param raid The raid, must no longer receive stats
+     * @param entry The raid's archive entry, marking it as merged
+     */
+    public void merge(RaidStats raid, ArchivedRaid entry) {
+        lock.writeLock().lock();
+        try {
+            if (catchUpMerged != null && !catchUpMerged.add(entry.getId())) return;
+
+            // A player counts one raid even if they switched faction during it
+            Set<UUID> counted = new HashSet<>();
+            for (String faction : raid.getFactions()) {
+                StatsColumns columns = raid.getColumns(faction);
+                if (columns == null || columns.size() == 0) continue;
+
+                StatTotals totals = columns.getTotals().snapshot();
+                factions.merge(faction, 1L, totals.getKills(), totals.getDeaths(), totals.getBlocksPlaced(),
+                        totals.getHitsDealt(), totals.getHitsTaken(), totals.getDamageDealt(), totals.getDamageTaken());
+
+                for (int row = 0, size = columns.size(); row < size; row++) {
+                    UUID player = columns.uuidAt(row);
+                    players.merge(player, counted.add(player) ? 1L : 0L, columns.getKills(row), columns.getDeaths(row),
+                            columns.getBlocksPlaced(row), columns.getHitsDealt(row), columns.getHitsTaken(row),
+                            columns.getDamageDealt(row), columns.getDamageTaken(row));
+                }
+            }
+
+            mergedPosition = Math.max(mergedPosition, entry.getPosition());
+            changes++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets a player's lifetime stats.
+     */
+    public LifetimeStats getPlayerStats(UUID playerUUID) {
+        lock.readLock().lock();
+        try {
+            LifetimeStats stats = players.get(playerUUID);
+            return stats == null ? LifetimeStats.EMPTY : stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets a faction's lifetime stats.
+     */
+    public LifetimeStats getFactionStats(String factionId) {
+        lock.readLock().lock();
+        try {
+            LifetimeStats stats = factions.get(factionId);
+            return stats == null ? LifetimeStats.EMPTY : stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Saves the totals if any raid was merged since the last save and the archive was caught up on.
+     * Encodes under the read lock and writes outside it, through a temp file and an atomic rename.
+     */
+    public synchronized void flush() {
+        ByteBuffer bytes;
+        long snapshot;
+        lock.readLock().lock();
+        try {
+            if (changes == savedChanges || catchUpMerged != null) return;
+            snapshot = changes;
+            bytes = write();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try {
+            File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (bytes.hasRemaining()) channel.write(bytes);
+                channel.force(true);
+            }
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            savedChanges = snapshot;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to save lifetime stats", e);
+        }
+    }
+
+    private ByteBuffer write() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + players.size() * 80 + factions.size() * 80);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(mergedPosition);
+
+            out.writeInt(players.size());
+            for (int row = 0; row < players.size(); row++) {
+                UUID player = players.keyAt(row);
+                out.writeLong(player.getMostSignificantBits());
+                out.writeLong(player.getLeastSignificantBits());
+                writeStats(out, players.getRow(row));
+            }
+            out.writeInt(factions.size());
+            for (int row = 0; row < factions.size(); row++) {
+                out.writeUTF(factions.keyAt(row));
+                writeStats(out, factions.getRow(row));
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            // Writes go to memory and cannot fail
+            throw new UncheckedIOException(e);
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    private void read(ByteBuffer in) throws IOException {
+        byte[] bytes = new byte[in.remaining()];
+        in.get(bytes);
+        if (bytes.length < 4) throw new IOException("Lifetime stats file is truncated");
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - 4, 4).getInt()) {
+            throw new IOException("Lifetime stats checksum does not match");
+        }
+
+        // Read into new tables so a bad file leaves nothing half loaded
+        RollupTable<UUID> loadedPlayers = new RollupTable<>();
+        RollupTable<String> loadedFactions = new RollupTable<>();
+        long position;
+        try (DataInputStream data = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4))) {
+            if (data.readInt() != MAGIC) throw new IOException("Not a lifetime stats file");
+            int version = data.readInt();
+            if (version != VERSION) throw new IOException("Unsupported lifetime stats version " + version);
+            position = data.readLong();
+
+            int playerCount = data.readInt();
+            for (int i = 0; i < playerCount; i++) {
+                UUID player = new UUID(data.readLong(), data.readLong());
+                loadedPlayers.merge(player, readStats(data));
+            }
+            int factionCount = data.readInt();
+            for (int i = 0; i < factionCount; i++) {
+                String faction = data.readUTF();
+                loadedFactions.merge(faction, readStats(data));
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (int row = 0; row < loadedPlayers.size(); row++) players.merge(loadedPlayers.keyAt(row), loadedPlayers.getRow(row));
+            for (int row = 0; row < loadedFactions.size(); row++) factions.merge(loadedFactions.keyAt(row), loadedFactions.getRow(row));
+            mergedPosition = position;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void writeStats(DataOutputStream out, LifetimeStats stats) throws IOException {
+        StatTotals totals = stats.getTotals();
+        out.writeLong(stats.getRaids());
+        out.writeLong(totals.getKills());
+        out.writeLong(totals.getDeaths());
+        out.writeLong(totals.getBlocksPlaced());
+        out.writeLong(totals.getHitsDealt());
+        out.writeLong(totals.getHitsTaken());
+        out.writeDouble(totals.getDamageDealt());
+        out.writeDouble(totals.getDamageTaken());
+    }
+
+    private static LifetimeStats readStats(DataInputStream in) throws IOException {
+        long raids = in.readLong();
+        return new LifetimeStats(raids, new StatTotals(in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                in.readLong(), in.readDouble(), in.readDouble()));
+    }
+}
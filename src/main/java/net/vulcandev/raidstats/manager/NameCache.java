@@ -0,0 +1,227 @@
+package net.vulcandev.raidstats.manager;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Player names by UUID for rankings, so rendering never waits on an offline player lookup.
+ * Names are added when players join and looked up off the main thread on a miss, with a placeholder shown
+ * until the lookup finishes. The least recently used names are evicted once the cache is full, and the cache
+ * is saved to data/names.dat so names of offline players survive restarts.
+ */
+public class NameCache {
+    // "VRSN"
+    private static final int MAGIC = 0x5652534E;
+    private static final int VERSION = 1;
+
+    private final net.vulcandev.raidstats.VulcanRaidStats plugin;
+    private final File file;
+    private final int maxEntries;
+    private final String placeholder;
+    private final String unknown;
+    // Access ordered, so iteration runs from least to most recently used
+    private final LinkedHashMap<UUID, String> names;
+    // Lookups in progress, guarded by names
+    private final Set<UUID> pending = new HashSet<>();
+
+    // Bumped whenever a looked up name arrives, so renders holding the placeholder are redone
+    private volatile long version;
+    private boolean dirty;
+    private BukkitTask saveTask;
+
+    public NameCache(net.vulcandev.raidstats.VulcanRaidStats plugin, File dataFolder) {
+        this.plugin = plugin;
+        this.file = new File(new File(dataFolder, "data"), "names.dat");
+        this.maxEntries = Math.max(16, plugin.conf().getInt("names.max-entries", 10000));
+        this.placeholder = plugin.conf().getString("names.placeholder", "...");
+        this.unknown = plugin.conf().getString("names.unknown", "Unknown");
+        this.names = new LinkedHashMap<UUID, String>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Loads the saved names and starts saving them on an async timer whenever they changed.
+     */
+    public void start() {
+        if (file.exists()) {
+            try {
+                read(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to load cached player names, they will be looked up again", e);
+            }
+        }
+
+        long intervalTicks = Math.max(1, plugin.conf().getInt("names.save-seconds", 300)) * 20L;
+        saveTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::save, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Stops the timer and saves the names.
+     */
+    public void stop() {
+        if (saveTask != null) {
+            saveTask.cancel();
+            saveTask = null;
+        }
+        save();
+    }
+
+    /**
+     * Records a player's current name, called when they join.
+     */
+    public void put(UUID playerUUID, String name) {
+        synchronized (names) {
+            if (!name.equals(names.put(playerUUID, name))) dirty = true;
+        }
+    }
+
+    /**
+     * Gets a player's name without blocking.
+     * A name that is not cached is looked up asynchronously and the placeholder is returned meanwhile.
+     */
+    public String getName(UUID playerUUID) {
+        synchronized (names) {
+            String name = names.get(playerUUID);
+            if (name != null) return name;
+            if (!pending.add(playerUUID)) return placeholder;
+        }
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> resolve(Collections.singletonList(playerUUID)));
+        return placeholder;
+    }
+
+    /**
+     * Looks up the names of players that are not cached yet in a single async task, used for raid participants.
+     */
+    public void prefetch(Collection<UUID> playerUUIDs) {
+        List<UUID> missing = new ArrayList<>();
+        synchronized (names) {
+            for (UUID playerUUID : playerUUIDs) {
+                if (!names.containsKey(playerUUID) && pending.add(playerUUID)) missing.add(playerUUID);
+            }
+        }
+        if (!missing.isEmpty()) Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> resolve(missing));
+    }
+
+    /**
+     * Gets a counter that changes whenever a looked up name arrives.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Looks up names through the server's user cache, off the main thread.
+     */
+    private void resolve(List<UUID> playerUUIDs) {
+        for (UUID playerUUID : playerUUIDs) {
+            String name = Bukkit.getOfflinePlayer(playerUUID).getName();
+            synchronized (names) {
+                pending.remove(playerUUID);
+                // A join may have filled it in meanwhile
+                if (names.containsKey(playerUUID)) continue;
+                names.put(playerUUID, name == null ? unknown : name);
+                dirty = true;
+            }
+        }
+        synchronized (names) {
+            version++;
+        }
+    }
+
+    /**
+     * Saves the names if any changed since the last save, through a temp file and an atomic rename.
+     */
+    public synchronized void save() {
+        ByteBuffer bytes;
+        synchronized (names) {
+            if (!dirty) return;
+            bytes = write();
+            dirty = false;
+        }
+
+        try {
+            File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (bytes.hasRemaining()) channel.write(bytes);
+            }
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to save cached player names", e);
+            synchronized (names) {
+                dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Encodes the names from least to most recently used, so loading them keeps their order.
+     */
+    private ByteBuffer write() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + names.size() * 32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(names.size());
+            for (Map.Entry<UUID, String> entry : names.entrySet()) {
+                out.writeLong(entry.getKey().getMostSignificantBits());
+                out.writeLong(entry.getKey().getLeastSignificantBits());
+                out.writeUTF(entry.getValue());
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            // Writes go to memory and cannot fail
+            throw new UncheckedIOException(e);
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    private void read(ByteBuffer in) throws IOException {
+        byte[] bytes = new byte[in.remaining()];
+        in.get(bytes);
+        if (bytes.length < 4) throw new IOException("Name cache file is truncated");
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - 4, 4).getInt()) {
+            throw new IOException("Name cache checksum does not match");
+        }
+
+        try (DataInputStream data = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4))) {
+            if (data.readInt() != MAGIC) throw new IOException("Not a name cache file");
+            int version = data.readInt();
+            if (version != VERSION) throw new IOException("Unsupported name cache version " + version);
+
+            int count = data.readInt();
+            synchronized (names) {
+                for (int i = 0; i < count; i++) {
+                    UUID playerUUID = new UUID(data.readLong(), data.readLong());
+                    // Names added since startup are newer
+                    names.putIfAbsent(playerUUID, data.readUTF());
+                }
+            }
+        }
+    }
+}
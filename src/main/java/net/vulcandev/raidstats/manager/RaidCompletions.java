@@ -0,0 +1,114 @@
+package net.vulcandev.raidstats.manager;
+
+import com.massivecraft.factions.Faction;
+import com.massivecraft.factions.Factions;
+import net.vulcandev.raidstats.data.ArchivedRaid;
+import net.vulcandev.raidstats.objects.PrefixIndex;
+import net.vulcandev.raidstats.objects.RaidStats;
+import org.bukkit.Bukkit;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * Tab completions for /viewraid: the tags of factions in a raid and the ids of active and archived raids.
+ * Both are kept in {@link PrefixIndex}es. Active raids are synced when the registry changed since the last
+ * completion, archived raids are loaded once on startup and added as they are archived. Raids dropped by the
+ * archive retention stay suggested until the next restart.
+ */
+public class RaidCompletions {
+    private static final int MAX_COMPLETIONS = 30;
+
+    private final net.vulcandev.raidstats.VulcanRaidStats plugin;
+    private final StatsManager statsManager;
+    private final PrefixIndex tags = new PrefixIndex();
+    private final PrefixIndex ids = new PrefixIndex();
+    // Indexed active raids and the tags they added, guarded by this
+    private final Map<UUID, List<String>> indexedActive = new HashMap<>();
+    private long indexedVersion = -1;
+
+    public RaidCompletions(net.vulcandev.raidstats.VulcanRaidStats plugin, StatsManager statsManager) {
+        this.plugin = plugin;
+        this.statsManager = statsManager;
+    }
+
+    /**
+     * Indexes the archived raids off the main thread.
+     */
+    public void loadArchived() {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                for (ArchivedRaid archived : plugin.getDataManager().getStorage().getArchivedAfter(-1)) addArchived(archived);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to index archived raids for completion", e);
+            }
+        });
+    }
+
+    /**
+     * Indexes a raid that was just archived.
+     */
+    public void addArchived(ArchivedRaid archived) {
+        ids.add(archived.getId().toString());
+        addTag(archived.getRaidingFaction());
+        addTag(archived.getDefendingFaction());
+    }
+
+    /**
+     * Gets the faction tags and raid ids starting with a prefix, tags first.
+     */
+    public List<String> complete(String prefix) {
+        syncActive();
+        List<String> result = new ArrayList<>(tags.complete(prefix, MAX_COMPLETIONS));
+        if (result.size() < MAX_COMPLETIONS) result.addAll(ids.complete(prefix, MAX_COMPLETIONS - result.size()));
+        return result;
+    }
+
+    /**
+     * Adds the raids registered since the last sync and removes the ones that are gone.
+     * Walks the active raids only if a raid was added or removed since.
+     */
+    private synchronized void syncActive() {
+        long version = statsManager.getRaidsVersion();
+        if (version == indexedVersion) return;
+        indexedVersion = version;
+
+        Set<UUID> current = new HashSet<>();
+        for (RaidStats raid : statsManager.getAllRaids()) {
+            current.add(raid.getId());
+            if (indexedActive.containsKey(raid.getId())) continue;
+
+            ids.add(raid.getId().toString());
+            List<String> added = new ArrayList<>(2);
+            String raidingTag = addTag(raid.getRaidingFaction());
+            if (raidingTag != null) added.add(raidingTag);
+            String defendingTag = addTag(raid.getDefendingFaction());
+            if (defendingTag != null) added.add(defendingTag);
+            indexedActive.put(raid.getId(), added);
+        }
+
+        Iterator<Map.Entry<UUID, List<String>>> iterator = indexedActive.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, List<String>> entry = iterator.next();
+            if (current.contains(entry.getKey())) continue;
+
+            ids.remove(entry.getKey().toString());
+            for (String tag : entry.getValue()) tags.remove(tag);
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Indexes the tag of a faction that still exists.
+     *
+     * @return The indexed tag, or null if the faction was disbanded
+     */
+    private String addTag(String factionId) {
+        Faction faction = Factions.getInstance().getFactionById(factionId);
+        if (faction == null) return null;
+        String tag = faction.getTag();
+        tags.add(tag);
+        return tag;
+    }
+}
@@ -0,0 +1,211 @@
+package net.vulcandev.raidstats.manager;
+
+import net.vulcandev.raidstats.event.RaidStatsEndEvent;
+import net.vulcandev.raidstats.objects.RaidStats;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Owns the purge deadline of every raid in grace.
+ * Deadlines sit in a hashed timing wheel of one second ticks: each deadline is linked into the bucket of its
+ * tick, so scheduling, moving and cancelling a deadline never touch the others, and each tick only visits
+ * one bucket. Deadlines are wall clock purge times saved with the raid, so they are scheduled again from the
+ * loaded raids after a restart.
+ */
+public class RaidExpiryManager {
+    private static final long TICK_MILLIS = 1000L;
+    // Power of two, deadlines further out than this many ticks wait for later rounds in their bucket
+    private static final int WHEEL_SIZE = 512;
+    // Wait before ending a raid in grace again after archiving it failed
+    private static final long RETRY_MILLIS = 60_000L;
+
+    private final net.vulcandev.raidstats.VulcanRaidStats plugin;
+    private final StatsManager statsManager;
+    private final Deadline[] buckets = new Deadline[WHEEL_SIZE];
+    private final Map<UUID, Deadline> byRaid = new HashMap<>();
+
+    // Last tick whose bucket was processed
+    private long lastTick = System.currentTimeMillis() / TICK_MILLIS;
+    private BukkitTask tickTask;
+
+    public RaidExpiryManager(net.vulcandev.raidstats.VulcanRaidStats plugin, StatsManager statsManager) {
+        this.plugin = plugin;
+        this.statsManager = statsManager;
+    }
+
+    /**
+     * Starts advancing the wheel on an async timer.
+     */
+    public void start() {
+        tickTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::tick, 20L, 20L);
+    }
+
+    /**
+     * Stops advancing the wheel, the deadlines are kept in the saved raids.
+     */
+    public void stop() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+    }
+
+    /**
+     * Schedules a raid to end at its purge time, moving its deadline if it was already scheduled.
+     */
+    public void schedule(RaidStats raid) {
+        schedule(raid.getId(), raid.getPurgeTime());
+    }
+
+    /**
+     * Schedules a raid to end at a time, moving its deadline if it was already scheduled.
+     * A time that already passed ends the raid on the next tick.
+     *
+     * @param raidId The raid's ID
+     * @param deadline When the raid ends, in epoch milliseconds
+     */
+    public synchronized void schedule(UUID raidId, long deadline) {
+        Deadline entry = byRaid.get(raidId);
+        if (entry == null) {
+            entry = new Deadline(raidId);
+            byRaid.put(raidId, entry);
+        } else {
+            unlink(entry);
+        }
+        entry.time = deadline;
+        entry.tick = Math.max(deadline / TICK_MILLIS, lastTick + 1);
+        link(entry);
+    }
+
+    /**
+     * Cancels a raid's deadline.
+     *
+     * @return true if the raid was scheduled
+     */
+    public synchronized boolean cancel(UUID raidId) {
+        Deadline entry = byRaid.remove(raidId);
+        if (entry == null) return false;
+
+        unlink(entry);
+        return true;
+    }
+
+    /**
+     * Cancels every deadline, used when all raids are cleared.
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < WHEEL_SIZE; i++) buckets[i] = null;
+        byRaid.clear();
+    }
+
+    /**
+     * Gets when a raid is scheduled to end, or -1 if it is not scheduled.
+     */
+    public synchronized long getDeadline(UUID raidId) {
+        Deadline entry = byRaid.get(raidId);
+        return entry == null ? -1L : entry.time;
+    }
+
+    /**
+     * Gets the number of scheduled raids.
+     */
+    public synchronized int size() {
+        return byRaid.size();
+    }
+
+    /**
+     * Stops tracking a raid and moves it to the archive, then fires its end event.
+     * A raid in grace that fails to archive is tried again after a minute, the drift check retries the others.
+     * Does disk I/O, so it should not be called on the main thread.
+     */
+    public void end(RaidStats raid) {
+        cancel(raid.getId());
+        if (plugin.getStatsPipeline().endRaid(raid)) {
+            Bukkit.getPluginManager().callEvent(new RaidStatsEndEvent(raid));
+        } else if (raid.isGrace()) {
+            // Already ended raids are skipped when the retry is due
+            schedule(raid.getId(), System.currentTimeMillis() + RETRY_MILLIS);
+        }
+    }
+
+    /**
+     * Processes the buckets of every tick since the last run, then ends the raids that are due outside the lock.
+     */
+    private void tick() {
+        long now = System.currentTimeMillis();
+        List<UUID> due = new ArrayList<>();
+        synchronized (this) {
+            long currentTick = now / TICK_MILLIS;
+            // After a long stall every bucket is visited once
+            long from = Math.max(lastTick + 1, currentTick - WHEEL_SIZE + 1);
+            for (long tick = from; tick <= currentTick; tick++) {
+                Deadline entry = buckets[(int) (tick & (WHEEL_SIZE - 1))];
+                while (entry != null) {
+                    Deadline next = entry.next;
+                    if (entry.tick <= currentTick) {
+                        unlink(entry);
+                        byRaid.remove(entry.raidId);
+                        due.add(entry.raidId);
+                    }
+                    entry = next;
+                }
+            }
+            lastTick = Math.max(lastTick, currentTick);
+        }
+
+        for (UUID raidId : due) {
+            RaidStats raid = statsManager.getRaidByUUID(raidId);
+            // Already ended or cleared
+            if (raid == null || !raid.isGrace()) continue;
+
+            if (raid.getPurgeTime() > now) {
+                // Grace was extended without moving the deadline
+                schedule(raid);
+                continue;
+            }
+            end(raid);
+        }
+    }
+
+    private void link(Deadline entry) {
+        int bucket = (int) (entry.tick & (WHEEL_SIZE - 1));
+        Deadline head = buckets[bucket];
+        entry.prev = null;
+        entry.next = head;
+        if (head != null) head.prev = entry;
+        buckets[bucket] = entry;
+    }
+
+    private void unlink(Deadline entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            int bucket = (int) (entry.tick & (WHEEL_SIZE - 1));
+            if (buckets[bucket] == entry) buckets[bucket] = entry.next;
+        }
+        if (entry.next != null) entry.next.prev = entry.prev;
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    /**
+     * A raid's deadline, linked into the bucket of its tick.
+     */
+    private static final class Deadline {
+        private final UUID raidId;
+        private long time;
+        private long tick;
+        private Deadline prev;
+        private Deadline next;
+
+        private Deadline(UUID raidId) {
+            this.raidId = raidId;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package net.vulcandev.raidstats.manager;
+
+import com.golfing8.kore.feature.RaidClaimFeature.Pair;
+import com.golfing8.kore.object.Raid;
+import com.massivecraft.factions.Faction;
+import com.massivecraft.factions.Factions;
+import net.md_5.bungee.api.chat.ClickEvent;
+import net.md_5.bungee.api.chat.ComponentBuilder;
+import net.md_5.bungee.api.chat.HoverEvent;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.vulcandev.raidstats.objects.MessageTemplate;
+import net.vulcandev.raidstats.objects.RaidStats;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+
+/**
+ * The active raid and grace listings shown by the intercepted raid commands, built ahead of time.
+ * Each visibility class gets its own ready-to-send lines: the public listing of discovered raids, one listing per
+ * raiding faction that also has undiscovered raids of its own, and the staff listing of every raid. The listings
+ * are rebuilt only when a raid is added or removed, or when a check every second sees the raids' state or minute
+ * counters or the grace periods change, so sending a listing does no lookups. Only touched on the main thread.
+ */
+public class RaidListing {
+    private static final String STAFF_PERMISSION = "factionskore.admin.raid-claim";
+    private static final long CHECK_INTERVAL_TICKS = 20L;
+
+    private final net.vulcandev.raidstats.VulcanRaidStats plugin;
+    private final StatsManager statsManager;
+
+    // Compiled messages
+    private final String activeRaidsHeader;
+    private final String noActiveRaids;
+    private final MessageTemplate activeRaid;
+    private final String raidHoverText;
+    private final String activeGraceHeader;
+    private final String noActiveGrace;
+    private final MessageTemplate activeGrace;
+    private final String graceHoverText;
+
+    private Listings listings;
+    private BukkitTask checkTask;
+
+    public RaidListing(net.vulcandev.raidstats.VulcanRaidStats plugin, StatsManager statsManager) {
+        this.plugin = plugin;
+        this.statsManager = statsManager;
+
+        this.activeRaidsHeader = compile("messages.active-raids-header");
+        this.noActiveRaids = compile("messages.no-active-raids");
+        this.activeRaid = MessageTemplate.compile(plugin.conf().getString("messages.active-raid"),
+                "number", "raidingFaction", "defendingFaction", "timeSinceStart", "timeLeft");
+        this.raidHoverText = compile("messages.raid-hover-text");
+        this.activeGraceHeader = compile("messages.active-grace-header");
+        this.noActiveGrace = compile("messages.no-active-grace");
+        this.activeGrace = MessageTemplate.compile(plugin.conf().getString("messages.active-grace"),
+                "defendingFaction", "raidingFaction", "graceTimeLeft");
+        this.graceHoverText = compile("messages.grace-hover-text");
+    }
+
+    /**
+     * Compiles a message without placeholders.
+     */
+    private String compile(String configKey) {
+        return MessageTemplate.compile(plugin.conf().getString(configKey)).render();
+    }
+
+    /**
+     * Starts checking for changes on a main thread timer.
+     */
+    public void start() {
+        checkTask = Bukkit.getScheduler().runTaskTimer(plugin, this::check, CHECK_INTERVAL_TICKS, CHECK_INTERVAL_TICKS);
+    }
+
+    /**
+     * Stops checking and drops the listings.
+     */
+    public void stop() {
+        if (checkTask != null) {
+            checkTask.cancel();
+            checkTask = null;
+        }
+        listings = null;
+    }
+
+    /**
+     * Sends the active raids and grace periods visible to a player.
+     */
+    public void send(Player player) {
+        Listings current = current();
+
+        player.sendMessage(activeRaidsHeader);
+        List<TextComponent> raids;
+        if (player.hasPermission(STAFF_PERMISSION)) {
+            raids = current.staffRaids;
+        } else {
+            String factionId = plugin.getFactionCache().getFactionId(player);
+            raids = factionId == null ? null : current.factionRaids.get(factionId);
+            if (raids == null) raids = current.publicRaids;
+        }
+        sendLines(player, raids, noActiveRaids);
+
+        player.sendMessage(activeGraceHeader);
+        sendLines(player, current.grace, noActiveGrace);
+    }
+
+    private static void sendLines(Player player, List<TextComponent> lines, String empty) {
+        if (lines.isEmpty()) {
+            player.sendMessage(empty);
+            return;
+        }
+        for (TextComponent line : lines) player.spigot().sendMessage(line);
+    }
+
+    /**
+     * Gets the listings, rebuilding them first if a raid was added or removed since.
+     */
+    private Listings current() {
+        if (listings == null || listings.raidsVersion != statsManager.getRaidsVersion()) listings = build(signature());
+        return listings;
+    }
+
+    /**
+     * Rebuilds the listings if anything they show changed.
+     */
+    private void check() {
+        long signature = signature();
+        if (listings == null || listings.signature != signature || listings.raidsVersion != statsManager.getRaidsVersion()) {
+            listings = build(signature);
+        }
+    }
+
+    /**
+     * Hashes everything the listings show except faction tags, which are picked up with the next minute change.
+     */
+    private long signature() {
+        long hash = 1;
+        for (RaidStats raid : statsManager.getAllRaids()) {
+            hash = 31 * hash + raid.getId().hashCode();
+            hash = 31 * hash + (raid.isGrace() ? 1 : 0);
+            Raid koreRaid = raid.getKoreRaid();
+            if (koreRaid == null) continue;
+            hash = 31 * hash + (koreRaid.isDiscovered() ? 1 : 0);
+            hash = 31 * hash + Objects.hashCode(koreRaid.getTimeSinceStart());
+            hash = 31 * hash + Objects.hashCode(koreRaid.getTimeLeft());
+        }
+        for (Map.Entry<String, Pair<String, Integer>> entry : gracePeriods().entrySet()) {
+            hash = 31 * hash + entry.getKey().hashCode();
+            hash = 31 * hash + Objects.hashCode(entry.getValue().getA());
+            hash = 31 * hash + Objects.hashCode(entry.getValue().getB());
+        }
+        return hash;
+    }
+
+    private Map<String, Pair<String, Integer>> gracePeriods() {
+        // Not set up until FactionsKore finished loading
+        if (plugin.getRaidTimer() == null) return Collections.emptyMap();
+        return plugin.getRaidTimer().getGracePeriods();
+    }
+
+    private Listings build(long signature) {
+        long raidsVersion = statsManager.getRaidsVersion();
+        List<RaidStats> active = new ArrayList<>();
+        Set<String> hiddenRaiders = new LinkedHashSet<>();
+        for (RaidStats raid : statsManager.getAllRaids()) {
+            if (raid.isGrace() || raid.getKoreRaid() == null) continue;
+            active.add(raid);
+            if (!raid.getKoreRaid().isDiscovered()) hiddenRaiders.add(raid.getRaidingFaction());
+        }
+
+        // Lines are numbered per listing, so each visibility class gets its own components
+        Map<String, String> tags = new HashMap<>();
+        Map<String, List<TextComponent>> factionRaids = new HashMap<>();
+        for (String factionId : hiddenRaiders) factionRaids.put(factionId, raidLines(active, factionId, false, tags));
+
+        return new Listings(signature, raidsVersion,
+                raidLines(active, null, false, tags),
+                factionRaids,
+                raidLines(active, null, true, tags),
+                graceLines(tags));
+    }
+
+    /**
+     * Builds the raid lines visible to a raiding faction, or to everyone if null.
+     * Staff see every raid.
+     */
+    private List<TextComponent> raidLines(List<RaidStats> active, String factionId, boolean staff, Map<String, String> tags) {
+        List<TextComponent> lines = new ArrayList<>();
+        int number = 1;
+        for (RaidStats raid : active) {
+            Raid koreRaid = raid.getKoreRaid();
+            if (!koreRaid.isDiscovered() && !staff && !raid.getRaidingFaction().equals(factionId)) continue;
+
+            String message = activeRaid.render(String.valueOf(number),
+                    getFactionTag(raid.getRaidingFaction(), tags), getFactionTag(raid.getDefendingFaction(), tags),
+                    String.valueOf(koreRaid.getTimeSinceStart()), String.valueOf(koreRaid.getTimeLeft()));
+            lines.add(clickable(message, raid, raidHoverText));
+            number++;
+        }
+        return Collections.unmodifiableList(lines);
+    }
+
+    /**
+     * Builds the grace period lines, the same for every player.
+     */
+    private List<TextComponent> graceLines(Map<String, String> tags) {
+        List<TextComponent> lines = new ArrayList<>();
+        for (Map.Entry<String, Pair<String, Integer>> entry : gracePeriods().entrySet()) {
+            String defendingFactionId = entry.getKey();
+            RaidStats raid = statsManager.getRaidDefendingByFacID(defendingFactionId);
+            if (raid == null) continue;
+
+            int graceTimeLeft = entry.getValue().getB();
+            String graceTimeLeftFormatted = graceTimeLeft > 0 ? graceTimeLeft + "m" : "No grace time left";
+            String message = activeGrace.render(getFactionTag(defendingFactionId, tags),
+                    getFactionTag(entry.getValue().getA(), tags), graceTimeLeftFormatted);
+            lines.add(clickable(message, raid, graceHoverText));
+        }
+        return Collections.unmodifiableList(lines);
+    }
+
+    /**
+     * Gets the display tag for a faction by its ID, looking each faction up once per build.
+     */
+    private static String getFactionTag(String factionId, Map<String, String> tags) {
+        return tags.computeIfAbsent(factionId, id -> {
+            Faction faction = Factions.getInstance().getFactionById(id);
+            return faction == null ? id : faction.getTag();
+        });
+    }
+
+    /**
+     * Creates a clickable line opening a raid's GUI, with a hover tooltip.
+     */
+    private static TextComponent clickable(String message, RaidStats raid, String hoverText) {
+        TextComponent textComponent = new TextComponent(message);
+        textComponent.setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT,
+                new ComponentBuilder(hoverText).create()));
+        textComponent.setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/viewraid " + raid.getId()));
+        return textComponent;
+    }
+
+    /**
+     * One build of every listing, with what it was built from.
+     */
+    private static final class Listings {
+        private final long signature;
+        private final long raidsVersion;
+        private final List<TextComponent> publicRaids;
+        // Only factions with undiscovered raids of their own, everyone else sees the public listing
+        private final Map<String, List<TextComponent>> factionRaids;
+        private final List<TextComponent> staffRaids;
+        private final List<TextComponent> grace;
+
+        private Listings(long signature, long raidsVersion, List<TextComponent> publicRaids,
+                         Map<String, List<TextComponent>> factionRaids, List<TextComponent> staffRaids,
+                         List<TextComponent> grace) {
+            this.signature = signature;
+            this.raidsVersion = raidsVersion;
+            this.publicRaids = publicRaids;
+            this.factionRaids = factionRaids;
+            this.staffRaids = staffRaids;
+            this.grace = grace;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package net.vulcandev.raidstats.manager;
+
+import com.golfing8.kore.object.Raid;
+import net.vulcandev.raidstats.objects.RaidStats;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the tracked raids in step with FactionsKore's raids.
+ * Raid start and end events update only the raid they name. A periodic drift check walks FactionsKore's
+ * active raids against the registry's pair index to catch missed events: raids FactionsKore has and we do not
+ * are added, raids linked to a stale FactionsKore raid are relinked, and raids FactionsKore no longer has are
+ * ended like a missed end event once they are missing from two checks in a row. Events and checks run
+ * one at a time, so a raid is never ended by both.
+ */
+public class RaidReconciler {
+    private final net.vulcandev.raidstats.VulcanRaidStats plugin;
+    private final StatsManager statsManager;
+    // Raids missing from FactionsKore on the last check, only touched by the checking thread
+    private Set<RaidStats> missing = Collections.newSetFromMap(new IdentityHashMap<>());
+    private BukkitTask checkTask;
+
+    public RaidReconciler(net.vulcandev.raidstats.VulcanRaidStats plugin, StatsManager statsManager) {
+        this.plugin = plugin;
+        this.statsManager = statsManager;
+    }
+
+    /**
+     * Starts the periodic drift check on an async timer.
+     */
+    public void start() {
+        long intervalTicks = Math.max(1, plugin.conf().getInt("reconcile.interval-seconds", 30)) * 20L;
+        checkTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::reconcile, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Stops the drift check.
+     */
+    public void stop() {
+        if (checkTask != null) {
+            checkTask.cancel();
+            checkTask = null;
+        }
+    }
+
+    /**
+     * Tracks a raid FactionsKore started, relinking the pair's raid instead if it is still tracked outside grace.
+     * Ignored until the saved raids are loaded, the first drift check after loading picks the raid up.
+     *
+     * @return true if a new raid was added
+     */
+    public synchronized boolean raidStarted(Raid koreRaid, String raidingFaction, String defendingFaction) {
+        if (!plugin.getDataManager().isLoaded()) return false;
+
+        RaidStats existing = statsManager.getRaidByPair(raidingFaction, defendingFaction);
+        if (existing != null && !existing.isGrace()) {
+            existing.setKoreRaid(koreRaid);
+            return false;
+        }
+
+        plugin.getStatsPipeline().startRaid(new RaidStats(raidingFaction, defendingFaction, koreRaid));
+        return true;
+    }
+
+    /**
+     * Handles a raid FactionsKore ended, ignoring it if the pair's raid is unknown or already in grace.
+     */
+    public synchronized void raidEnded(String raidingFaction, String defendingFaction) {
+        RaidStats raidStats = statsManager.getRaidByPair(raidingFaction, defendingFaction);
+        if (raidStats == null || raidStats.isGrace()) return;
+        endRaid(raidStats);
+    }
+
+    /**
+     * Puts a raid into grace if the defenders got one and ends it otherwise.
+     * During grace, stats are frozen to prevent padding.
+     */
+    private void endRaid(RaidStats raidStats) {
+        int graceMinutes = plugin.getRaidTimer().getGrace(raidStats.getDefendingFaction());
+        if (graceMinutes <= 0) {
+            plugin.getExpiryManager().end(raidStats);
+            return;
+        }
+
+        // Convert grace period from minutes to milliseconds
+        long graceValueMillis = (graceMinutes + 1L) * 60L * 1000L; // graceMinutes + 1 to account for any additional time if needed
+
+        // Get the current Unix timestamp in milliseconds and calculate the grace end timestamp
+        long graceEndTimestamp = System.currentTimeMillis() + graceValueMillis;
+
+        // Set Grace to stop stat padding (Adding to stats while in grace)
+        plugin.getStatsPipeline().startGrace(raidStats, graceEndTimestamp);
+
+        // Remove the raid entirely when grace is over
+        plugin.getExpiryManager().schedule(raidStats);
+    }
+
+    /**
+     * Compares the tracked raids with FactionsKore's active raids and fixes any drift.
+     * Each FactionsKore raid costs one pair lookup, and only raids outside grace can be missing from FactionsKore.
+     */
+    public synchronized void reconcile() {
+        if (plugin.getRaidTimer() == null) return;
+        List<Raid> active = plugin.getRaidTimer().getActiveRaids();
+        if (active == null) return;
+
+        int added = 0;
+        int relinked = 0;
+        Set<RaidStats> linked = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Raid koreRaid : active) {
+            RaidStats raidStats = statsManager.getRaidByPair(koreRaid.getFaction(), koreRaid.getRaided());
+            if (raidStats == null || raidStats.isGrace()) {
+                // Started while we were not listening
+                if (raidStarted(koreRaid, koreRaid.getFaction(), koreRaid.getRaided())) added++;
+                raidStats = statsManager.getRaidByPair(koreRaid.getFaction(), koreRaid.getRaided());
+                if (raidStats != null) linked.add(raidStats);
+                continue;
+            }
+            if (raidStats.getKoreRaid() != koreRaid) {
+                raidStats.setKoreRaid(koreRaid);
+                relinked++;
+            }
+            linked.add(raidStats);
+        }
+
+        int orphaned = 0;
+        Set<RaidStats> stillMissing = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (RaidStats raidStats : statsManager.getAllRaids()) {
+            if (raidStats.isGrace() || linked.contains(raidStats)) continue;
+            // Given one check to show up, start events are handled asynchronously
+            if (!missing.contains(raidStats)) {
+                stillMissing.add(raidStats);
+                continue;
+            }
+            endRaid(raidStats);
+            orphaned++;
+        }
+        missing = stillMissing;
+
+        if (added > 0 || relinked > 0 || orphaned > 0) {
+            plugin.getLogger().info("Reconciled raids with FactionsKore: " + added + " added, " + relinked + " relinked, " + orphaned + " orphaned");
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package net.vulcandev.raidstats.manager;
+
+import net.vulcandev.raidstats.objects.RaidStats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Concurrent index of all tracked raids.
+ * Keeps hash indexes by raid UUID, defending faction, raiding faction and (raiding, defending) pair
+ * so that the combat listeners never have to scan every raid.
+ * Reads are lock-free; writes are serialised so all indexes stay consistent with each other.
+ */
+public class RaidRegistry {
+    // Insertion ordered view used for listings
+    private final List<RaidStats> ordered = new CopyOnWriteArrayList<>();
+    private final Map<UUID, RaidStats> byId = new ConcurrentHashMap<>();
+    // Index values are immutable lists that are swapped on write
+    private final Map<String, List<RaidStats>> byDefending = new ConcurrentHashMap<>();
+    private final Map<String, List<RaidStats>> byRaiding = new ConcurrentHashMap<>();
+    private final Map<String, RaidStats> byPair = new ConcurrentHashMap<>();
+    // Faction currently owning the raiding outpost, counts as defending every raid
+    private volatile String outpostOwner;
+    // Bumped whenever a raid is added or removed
+    private volatile long version;
+
+    /**
+     * Generates a unique key for a raid based on defending and raiding faction IDs.
+     */
+    private static String pairKey(String defendingFaction, String raidingFaction) {
+        return defendingFaction + "::" + raidingFaction;
+    }
+
+    /**
+     * Adds a raid to every index.
+     */
+    public synchronized void add(RaidStats raid) {
+        if (byId.putIfAbsent(raid.getId(), raid) != null) return;
+        ordered.add(raid);
+        byDefending.compute(raid.getDefendingFaction(), (k, list) -> append(list, raid));
+        byRaiding.compute(raid.getRaidingFaction(), (k, list) -> append(list, raid));
+        byPair.put(pairKey(raid.getDefendingFaction(), raid.getRaidingFaction()), raid);
+        version++;
+    }
+
+    /**
+     * Removes a raid from every index.
+     *
+     * @return true if the raid was registered
+     */
+    public synchronized boolean remove(RaidStats raid) {
+        if (byId.remove(raid.getId()) == null) return false;
+        ordered.remove(raid);
+        byDefending.computeIfPresent(raid.getDefendingFaction(), (k, list) -> without(list, raid));
+        byRaiding.computeIfPresent(raid.getRaidingFaction(), (k, list) -> without(list, raid));
+        byPair.remove(pairKey(raid.getDefendingFaction(), raid.getRaidingFaction()), raid);
+        version++;
+        return true;
+    }
+
+    /**
+     * Removes every raid from the registry.
+     */
+    public synchronized void clear() {
+        ordered.clear();
+        byId.clear();
+        byDefending.clear();
+        byRaiding.clear();
+        byPair.clear();
+        version++;
+    }
+
+    /**
+     * Gets a counter that changes whenever a raid is added or removed.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the faction that currently owns the raiding outpost, or null if none.
+     */
+    public void setOutpostOwner(String factionId) {
+        this.outpostOwner = factionId;
+    }
+
+    /**
+     * Gets the faction that currently owns the raiding outpost, or null if none.
+     */
+    public String getOutpostOwner() {
+        return outpostOwner;
+    }
+
+    /**
+     * Checks if a faction owns the raiding outpost.
+     */
+    public boolean isOutpostOwner(String factionId) {
+        String owner = outpostOwner;
+        return owner != null && owner.equals(factionId);
+    }
+
+    /**
+     * Gets a raid by its unique UUID.
+     */
+    public RaidStats getById(UUID id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Gets the raid between the given raiding and defending faction, ignoring the outpost.
+     */
+    public RaidStats getByPair(String raidingFaction, String defendingFaction) {
+        return byPair.get(pairKey(defendingFaction, raidingFaction));
+    }
+
+    /**
+     * Gets all raids where the faction is the raiding faction.
+     */
+    public List<RaidStats> getByRaiding(String factionId) {
+        return byRaiding.getOrDefault(factionId, Collections.emptyList());
+    }
+
+    /**
+     * Gets all raids where the faction is the defending faction, ignoring the outpost.
+     */
+    public List<RaidStats> getByDefending(String factionId) {
+        return byDefending.getOrDefault(factionId, Collections.emptyList());
+    }
+
+    /**
+     * Retrieves the raid where a faction is defending, either directly or as the outpost owner.
+     */
+    public RaidStats getDefending(String factionId) {
+        List<RaidStats> defending = getByDefending(factionId);
+        if (!defending.isEmpty()) return defending.get(0);
+        if (!isOutpostOwner(factionId)) return null;
+
+        // Outpost owners defend every raid, fall back to the oldest one
+        Iterator<RaidStats> iterator = ordered.iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    /**
+     * Retrieves all raids between two factions in either direction, including outpost ownership.
+     */
+    public List<RaidStats> getBetween(String faction1, String faction2) {
+        boolean owner1 = isOutpostOwner(faction1);
+        boolean owner2 = isOutpostOwner(faction2);
+
+        if (!owner1 && !owner2) {
+            RaidStats first = getByPair(faction1, faction2);
+            RaidStats second = getByPair(faction2, faction1);
+            if (first == null && second == null) return Collections.emptyList();
+            if (first == null) return Collections.singletonList(second);
+            if (second == null || second == first) return Collections.singletonList(first);
+            List<RaidStats> result = new ArrayList<>(2);
+            result.add(first);
+            result.add(second);
+            return result;
+        }
+
+        // Outpost owner defends every raid of the other faction
+        List<RaidStats> result = new ArrayList<>(owner2 ? getByRaiding(faction1) : pairAsList(faction1, faction2));
+        List<RaidStats> reverse = owner1 ? getByRaiding(faction2) : pairAsList(faction2, faction1);
+        for (RaidStats raid : reverse) {
+            if (!result.contains(raid)) result.add(raid);
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves all raids in insertion order.
+     */
+    public List<RaidStats> getAll() {
+        return new ArrayList<>(ordered);
+    }
+
+    /**
+     * Gets the number of registered raids.
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Checks if no raids are registered.
+     */
+    public boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    private List<RaidStats> pairAsList(String raidingFaction, String defendingFaction) {
+        RaidStats raid = getByPair(raidingFaction, defendingFaction);
+        return raid == null ? Collections.emptyList() : Collections.singletonList(raid);
+    }
+
+    private static List<RaidStats> append(List<RaidStats> list, RaidStats raid) {
+        if (list == null) return Collections.singletonList(raid);
+        List<RaidStats> copy = new ArrayList<>(list.size() + 1);
+        copy.addAll(list);
+        copy.add(raid);
+        return Collections.unmodifiableList(copy);
+    }
+
+    private static List<RaidStats> without(List<RaidStats> list, RaidStats raid) {
+        List<RaidStats> copy = new ArrayList<>(list);
+        copy.remove(raid);
+        return copy.isEmpty() ? null : Collections.unmodifiableList(copy);
+    }
+}
@@ -1,59 +1,43 @@
 package net.vulcandev.raidstats.manager;
 
-import com.massivecraft.factions.Board;
-import com.massivecraft.factions.FLocation;
-import com.massivecraft.factions.Faction;
 import net.vulcandev.raidstats.VulcanRaidStats;
 import net.vulcandev.raidstats.objects.RaidStats;
 import org.bukkit.Location;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Manages all active raid tracking objects.
- * Handles raid creation, lookup, removal, and synchronization with FactionsKore.
+ * Handles raid creation, lookup and removal, {@link RaidReconciler} keeps it in sync with FactionsKore.
  */
 public class StatsManager {
     private final VulcanRaidStats plugin;
-    private final List<RaidStats> raids = new ArrayList<>();
+    private final RaidRegistry registry = new RaidRegistry();
 
     public StatsManager(VulcanRaidStats plugin) {
         this.plugin = plugin;
-        syncRaids();
+        syncOutpostOwner();
     }
 
     /**
-     * Periodically syncs raid objects with FactionsKore's active raids.
-     * Ensures our raid data stays in sync with the external raid system.
+     * Keeps the registry's raiding outpost owner entry up to date.
+     * The outpost owner counts as a defender in every raid, so it is indexed rather than looked up per hit.
      */
-    private void syncRaids() {
-        plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, () -> {
-            if(plugin.getRaidTimer() == null || plugin.getRaidTimer().getActiveRaids() == null) return;
-            Map<String, RaidStats> raidMap = raids.stream()
-                    .collect(Collectors.toMap(
-                            raidObject -> generateKey(raidObject.getDefendingFaction(), raidObject.getRaidingFaction()),
-                            raidObject -> raidObject
-                    ));
-
-            plugin.getRaidTimer().getActiveRaids().forEach(koreRaid -> {
-                String key = generateKey(koreRaid.getRaided(), koreRaid.getFaction());
-                RaidStats raidStats = raidMap.get(key);
-                if (raidStats != null) {
-                    raidStats.setKoreRaid(koreRaid);
-                }
-            });
-        },600L, 600L);
+    private void syncOutpostOwner() {
+        plugin.getServer().getScheduler().runTaskTimer(plugin, this::refreshOutpostOwner, 20L, 20L);
     }
 
     /**
-     * Generates a unique key for a raid based on defending and raiding faction IDs.
+     * Re-reads the raiding outpost owner from FactionsKore into the registry.
      */
-    private String generateKey(String defendingFaction, String raidingFaction) {
-        return defendingFaction + "::" + raidingFaction;
+    public void refreshOutpostOwner() {
+        if (plugin.getRaidingOutpost() == null || plugin.getRaidingOutpost().getOutpost() == null) {
+            registry.setOutpostOwner(null);
+            return;
+        }
+        registry.setOutpostOwner(plugin.getRaidingOutpost().getOutpost().getOwner());
     }
 
     /**
@@ -62,7 +46,7 @@ public class StatsManager {
      * @param raid The RaidStats object to add.
      */
     public void addRaid(RaidStats raid) {
-        raids.add(raid);
+        registry.add(raid);
     }
 
     /**
@@ -72,7 +56,18 @@ public class StatsManager {
      * @return The corresponding RaidStats, or null if not found.
      */
     public RaidStats getRaidByUUID(UUID uuid) {
-        return raids.stream().filter(r -> r.getId().equals(uuid)).findFirst().orElse(null);
+        return registry.getById(uuid);
+    }
+
+    /**
+     * Retrieves the latest raid of a raiding faction against a defending faction, ignoring the outpost.
+     *
+     * @param raidingFaction The ID of the raiding faction.
+     * @param defendingFaction The ID of the defending faction.
+     * @return The corresponding RaidStats, or null if not found.
+     */
+    public RaidStats getRaidByPair(String raidingFaction, String defendingFaction) {
+        return registry.getByPair(raidingFaction, defendingFaction);
     }
 
     /**
@@ -82,34 +77,46 @@ public class StatsManager {
      * @return The corresponding RaidStats, or null if not found.
      */
     public RaidStats getRaidDefendingByFacID(String factionId) {
-        return raids.stream()
-                .filter(raid -> isDefendingFaction(raid, factionId))
-                .findFirst()
-                .orElse(null);
+        return registry.getDefending(factionId);
+    }
+
+    /**
+     * Retrieves the raid a faction is currently in, raiding or defending.
+     * A raid outside grace is preferred over one in grace, and a later registered raid over an earlier one.
+     *
+     * @param factionId The ID of the faction.
+     * @return The corresponding RaidStats, or null if the faction is in no raid.
+     */
+    public RaidStats getCurrentRaid(String factionId) {
+        RaidStats current = null;
+        for (List<RaidStats> raids : Arrays.asList(registry.getByRaiding(factionId), registry.getByDefending(factionId))) {
+            for (RaidStats raid : raids) {
+                if (current == null || current.isGrace() || !raid.isGrace()) current = raid;
+            }
+        }
+        return current;
     }
 
     /**
      * Checks if a faction owns the raiding outpost.
      */
     public boolean doesFactionOwnRaidingOutpost(String factionId) {
-        if (plugin.getRaidingOutpost() == null || plugin.getRaidingOutpost().getOutpost() == null || plugin.getRaidingOutpost().getOutpost().getOwner() == null) return false;
-        return plugin.getRaidingOutpost().getOutpost().getOwner().equals(factionId);
+        return registry.isOutpostOwner(factionId);
     }
 
     /**
-     * Checks if a location is within the raiding outpost territory.
+     * Checks if the raiding outpost currently has an owner.
      */
-    public boolean isLocInRPost(Location loc) {
-        if (plugin.getRaidingOutpost() == null || plugin.getRaidingOutpost().getOutpost() == null || plugin.getRaidingOutpost().getOutpost().getOwner() == null) return false;
-        Faction fac = Board.getInstance().getFactionAt(new FLocation(loc));
-        return fac != null && fac.getTag().equals("RaidOutpost");
+    public boolean hasOutpostOwner() {
+        return registry.getOutpostOwner() != null;
     }
 
     /**
-     * Determines if a faction is defending in a raid (either as the defending faction or outpost owner).
+     * Checks if a location is within the raiding outpost territory.
      */
-    private boolean isDefendingFaction(RaidStats raid, String factionId) {
-        return raid.getDefendingFaction().equals(factionId) || doesFactionOwnRaidingOutpost(factionId);
+    public boolean isLocInRPost(Location loc) {
+        if (!hasOutpostOwner()) return false;
+        return plugin.getClaimCache().get(loc.getWorld(), loc.getBlockX() >> 4, loc.getBlockZ() >> 4).isOutpost();
     }
 
     /**
@@ -120,21 +127,17 @@ public class StatsManager {
      * @return The corresponding RaidStats, or null if not found.
      */
     public List<RaidStats> getRaidsByFactionIds(String faction1, String faction2) {
-        return raids.stream()
-                .filter(raid -> (raid.getRaidingFaction().equals(faction1) && isDefendingFaction(raid, faction2)) ||
-                        (raid.getRaidingFaction().equals(faction2) && isDefendingFaction(raid, faction1)))
-                .collect(Collectors.toList());
+        return registry.getBetween(faction1, faction2);
     }
 
     /**
-     * Removes a raid from the manager based on raiding and defending faction IDs.
+     * Removes a specific raid from the manager.
      *
-     * @param raidingFaction  The ID of the raiding faction.
-     * @param defendingFaction The ID of the defending faction.
+     * @param raid The raid to remove.
+     * @return true if the raid was tracked.
      */
-    public void removeRaid(String raidingFaction, String defendingFaction) {
-        raids.removeIf(raid -> raid.getRaidingFaction().equals(raidingFaction) &&
-                isDefendingFaction(raid, defendingFaction));
+    public boolean removeRaid(RaidStats raid) {
+        return registry.remove(raid);
     }
 
     /**
@@ -143,13 +146,20 @@ public class StatsManager {
      * @return A list of all RaidStats objects.
      */
     public List<RaidStats> getAllRaids() {
-        return new ArrayList<>(raids);
+        return registry.getAll();
+    }
+
+    /**
+     * Gets a counter that changes whenever a raid is added or removed.
+     */
+    public long getRaidsVersion() {
+        return registry.getVersion();
     }
 
     /**
      * Clears all ongoing raids from the manager.
      */
     public void clearAllRaids() {
-        raids.clear();
+        registry.clear();
     }
 }
\ No newline at end of file
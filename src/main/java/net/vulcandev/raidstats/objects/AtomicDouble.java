@@ -0,0 +1,49 @@
+package net.vulcandev.raidstats.objects;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A double value that can be updated atomically from multiple threads.
+ * Backed by the raw long bits of the double and a CAS loop, so every addition is applied exactly once.
+ */
+public class AtomicDouble {
+    private final AtomicLong bits;
+
+    public AtomicDouble() {
+        this(0D);
+    }
+
+    public AtomicDouble(double initialValue) {
+        this.bits = new AtomicLong(Double.doubleToRawLongBits(initialValue));
+    }
+
+    /**
+     * Gets the current value.
+     */
+    public double get() {
+        return Double.longBitsToDouble(bits.get());
+    }
+
+    /**
+     * Sets the current value.
+     */
+    public void set(double value) {
+        bits.set(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Atomically adds the given value and returns the updated value.
+     */
+    public double addAndGet(double delta) {
+        while (true) {
+            long current = bits.get();
+            double next = Double.longBitsToDouble(current) + delta;
+            if (bits.compareAndSet(current, Double.doubleToRawLongBits(next))) return next;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Double.toString(get());
+    }
+}
@@ -0,0 +1,48 @@
+package net.vulcandev.raidstats.objects;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running stat totals for one faction in a raid.
+ * Updated by the faction's {@link StatsColumns} at the same time as the player columns,
+ * so reading the totals never has to walk the players.
+ */
+public class FactionTotals {
+    private final AtomicLong kills = new AtomicLong();
+    private final AtomicLong deaths = new AtomicLong();
+    private final AtomicDouble damageDealt = new AtomicDouble();
+    private final AtomicLong hitsDealt = new AtomicLong();
+    private final AtomicLong hitsTaken = new AtomicLong();
+    private final AtomicDouble damageTaken = new AtomicDouble();
+    private final AtomicLong blocksPlaced = new AtomicLong();
+
+    void addKills(int kills) {
+        this.kills.addAndGet(kills);
+    }
+
+    void addDeaths(int deaths) {
+        this.deaths.addAndGet(deaths);
+    }
+
+    void addDamageGiven(double damage, int hits) {
+        this.damageDealt.addAndGet(damage);
+        this.hitsDealt.addAndGet(hits);
+    }
+
+    void addDamageTaken(double damage, int hits) {
+        this.damageTaken.addAndGet(damage);
+        this.hitsTaken.addAndGet(hits);
+    }
+
+    void addBlocksPlaced(int blocks) {
+        this.blocksPlaced.addAndGet(blocks);
+    }
+
+    /**
+     * Takes an immutable copy of the current totals.
+     */
+    public StatTotals snapshot() {
+        return new StatTotals(kills.get(), deaths.get(), blocksPlaced.get(), hitsDealt.get(), hitsTaken.get(),
+                damageDealt.get(), damageTaken.get());
+    }
+}
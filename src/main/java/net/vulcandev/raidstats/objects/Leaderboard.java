@@ -0,0 +1,131 @@
+package net.vulcandev.raidstats.objects;
+
+import java.util.Arrays;
+
+/**
+ * Ranking of players for a single stat, kept sorted as stats change.
+ * Players are identified by their {@link StatsColumns} row and held in an array ordered by descending value,
+ * with an array of their positions indexed by row.
+ * When a value changes the player is swapped past whole runs of equal values at a time, so a typical
+ * +1 update costs a binary search and a swap, and top-k reads never sort.
+ */
+public class Leaderboard {
+    private int[] players = new int[16];
+    private int[] values = new int[16];
+    // Position + 1 of each row, zero when not ranked
+    private int[] positions = new int[16];
+    private int size;
+
+    /**
+     * Re-ranks a player using their current value for the given stat.
+     * The value is read under the lock so concurrent updates always leave the latest value ranked.
+     */
+    public synchronized void update(int player, StatsColumns columns, RaidStatType statType) {
+        update(player, columns.getValue(statType, player));
+    }
+
+    /**
+     * Re-ranks a player with a new value, adding them if they aren't ranked yet.
+     */
+    public synchronized void update(int player, int value) {
+        if (player >= positions.length) positions = Arrays.copyOf(positions, Math.max(player + 1, positions.length << 1));
+
+        int index;
+        if (positions[player] == 0) {
+            ensureCapacity(size + 1);
+            index = size++;
+            players[index] = player;
+            positions[player] = index + 1;
+        } else {
+            index = positions[player] - 1;
+        }
+        values[index] = value;
+
+        // Move up past runs of lower values
+        while (index > 0 && values[index - 1] < value) {
+            int target = firstOfRun(values[index - 1], index - 1);
+            swap(index, target);
+            index = target;
+        }
+
+        // Move down past runs of higher values
+        while (index < size - 1 && values[index + 1] > value) {
+            int target = lastOfRun(values[index + 1], index + 1);
+            swap(index, target);
+            index = target;
+        }
+    }
+
+    /**
+     * Gets the players ranked from the given position, best first.
+     *
+     * @param from The zero based rank to start from
+     * @param limit Maximum number of players to return
+     */
+    public synchronized int[] range(int from, int limit) {
+        int end = Math.min(size, from + limit);
+        if (from >= end) return new int[0];
+        return Arrays.copyOfRange(players, from, end);
+    }
+
+    /**
+     * Gets the zero based rank of a player, or -1 if they aren't ranked.
+     */
+    public synchronized int rankOf(int player) {
+        if (player < 0 || player >= positions.length) return -1;
+        return positions[player] - 1;
+    }
+
+    /**
+     * Gets the number of ranked players.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Finds the first index of the run of the given value ending at {@code last}.
+     */
+    private int firstOfRun(int value, int last) {
+        int low = 0;
+        int high = last;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= value) high = mid;
+            else low = mid + 1;
+        }
+        return low;
+    }
+
+    /**
+     * Finds the last index of the run of the given value starting at {@code first}.
+     */
+    private int lastOfRun(int value, int first) {
+        int low = first;
+        int high = size - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (values[mid] >= value) low = mid;
+            else high = mid - 1;
+        }
+        return low;
+    }
+
+    private void swap(int a, int b) {
+        int player = players[a];
+        int value = values[a];
+        players[a] = players[b];
+        values[a] = values[b];
+        players[b] = player;
+        values[b] = value;
+        positions[players[a]] = a + 1;
+        positions[players[b]] = b + 1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= players.length) return;
+        int grown = Math.max(capacity, players.length << 1);
+        players = Arrays.copyOf(players, grown);
+        values = Arrays.copyOf(values, grown);
+    }
+}
@@ -0,0 +1,20 @@
+package net.vulcandev.raidstats.objects;
+
+import lombok.Getter;
+
+/**
+ * Immutable snapshot of a player's or faction's stats summed over every finished raid.
+ */
+@Getter
+public final class LifetimeStats {
+    public static final LifetimeStats EMPTY = new LifetimeStats(0L, StatTotals.EMPTY);
+
+    // Number of raids merged into the totals
+    private final long raids;
+    private final StatTotals totals;
+
+    public LifetimeStats(long raids, StatTotals totals) {
+        this.raids = raids;
+        this.totals = totals;
+    }
+}
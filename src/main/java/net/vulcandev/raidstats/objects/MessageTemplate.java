@@ -0,0 +1,83 @@
+package net.vulcandev.raidstats.objects;
+
+import net.xantharddev.vulcanlib.libs.Colour;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A config message compiled into literal text and placeholder slots.
+ * Colour codes are applied once when compiling, so rendering only appends the literals and the slot values
+ * into a reused builder in one pass. Placeholders that are not declared stay in the text as they are.
+ */
+public final class MessageTemplate {
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    // One more literal than slots, literal i comes before slot i
+    private final String[] literals;
+    // Index into the declared placeholders of each slot
+    private final int[] slots;
+
+    private MessageTemplate(String[] literals, int[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+    }
+
+    /**
+     * Compiles a message.
+     *
+     * @param raw The message from the config, with & colour codes, null compiles to an empty message
+     * @param placeholders The placeholder names without braces, values are passed to {@link #render} in this order
+     */
+    public static MessageTemplate compile(String raw, String... placeholders) {
+        String text = raw == null ? "" : Colour.colour(raw);
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+
+        int literalStart = 0;
+        int open = text.indexOf('{');
+        while (open >= 0) {
+            int close = text.indexOf('}', open + 1);
+            if (close < 0) break;
+
+            int slot = indexOf(placeholders, text, open + 1, close);
+            if (slot < 0) {
+                open = text.indexOf('{', open + 1);
+                continue;
+            }
+            literals.add(text.substring(literalStart, open));
+            slots.add(slot);
+            literalStart = close + 1;
+            open = text.indexOf('{', literalStart);
+        }
+        literals.add(text.substring(literalStart));
+
+        int[] slotArray = new int[slots.size()];
+        for (int i = 0; i < slotArray.length; i++) slotArray[i] = slots.get(i);
+        return new MessageTemplate(literals.toArray(new String[0]), slotArray);
+    }
+
+    private static int indexOf(String[] placeholders, String text, int start, int end) {
+        for (int i = 0; i < placeholders.length; i++) {
+            String placeholder = placeholders[i];
+            if (placeholder.length() == end - start && text.startsWith(placeholder, start)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Fills in the placeholders.
+     *
+     * @param values The placeholder values, in the order they were declared when compiling
+     */
+    public String render(String... values) {
+        if (slots.length == 0) return literals[0];
+
+        StringBuilder out = BUILDER.get();
+        out.setLength(0);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]).append(values[slots[i]]);
+        }
+        return out.append(literals[slots.length]).toString();
+    }
+}
@@ -1,73 +1,111 @@
 package net.vulcandev.raidstats.objects;
 
-import lombok.Getter;
+import java.util.UUID;
 
 /**
  * Stores combat and raid statistics for an individual player.
  * Tracks kills, deaths, damage dealt/taken, and blocks placed during a raid.
+ * This is a view over the player's row in their faction's {@link StatsColumns}, so changes made through it
+ * are thread-safe and update the faction totals and leaderboards as well. Stats created on their own get a
+ * column set of their own.
  */
 public class PlayerStats {
-    @Getter
-    private int kills;
-    @Getter
-    private int deaths;
-    private double damageDealt;
-    @Getter
-    private int hitsDealt;
-    @Getter
-    private int hitsTaken;
-    private double damageTaken;
-    @Getter
-    private int blocksPlaced;
+    private final StatsColumns columns;
+    private final int row;
+
+    /**
+     * Creates empty stats not tied to any raid.
+     */
+    public PlayerStats() {
+        this.columns = new StatsColumns();
+        this.row = columns.indexOrCreate(new UUID(0L, 0L));
+    }
+
+    PlayerStats(StatsColumns columns, int row) {
+        this.columns = columns;
+        this.row = row;
+    }
+
+    public int getKills() {
+        return columns.getKills(row);
+    }
+
+    public int getDeaths() {
+        return columns.getDeaths(row);
+    }
+
+    public int getHitsDealt() {
+        return columns.getHitsDealt(row);
+    }
+
+    public int getHitsTaken() {
+        return columns.getHitsTaken(row);
+    }
+
+    public int getBlocksPlaced() {
+        return columns.getBlocksPlaced(row);
+    }
 
     /**
      * Adds kills to the player's total.
      */
     public void addKills(int kills) {
-        this.kills += kills;
+        columns.addKills(row, kills);
     }
 
     /**
      * Adds deaths to the player's total.
      */
     public void addDeaths(int deaths) {
-        this.deaths += deaths;
+        columns.addDeaths(row, deaths);
     }
 
     /**
      * Returns total damage dealt as an integer.
      */
     public int getDamageDealt() {
-        return (int) damageDealt;
+        return (int) columns.getDamageDealt(row);
+    }
+
+    /**
+     * Returns total damage dealt with full precision.
+     */
+    public double getExactDamageDealt() {
+        return columns.getDamageDealt(row);
     }
 
     /**
      * Records damage dealt and increments hit counter.
      */
     public void addDamageGiven(double damage) {
-        this.damageDealt += damage;
-        this.hitsDealt++;
+        columns.addDamageGiven(row, damage);
     }
 
     /**
      * Returns total damage taken as an integer.
      */
     public int getDamageTaken() {
-        return (int) damageTaken;
+        return (int) columns.getDamageTaken(row);
+    }
+
+    /**
+     * Returns total damage taken with full precision.
+     */
+    public double getExactDamageTaken() {
+        return columns.getDamageTaken(row);
     }
 
     /**
      * Records damage taken and increments hit counter.
      */
     public void addDamageTaken(double damage) {
-        this.damageTaken += damage;
-        this.hitsTaken++;
+        columns.addDamageTaken(row, damage);
     }
 
     /**
      * Increments the blocks placed counter.
      */
     public void addBlocksPlaced() {
-        this.blocksPlaced++;
+        columns.addBlocksPlaced(row);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,205 @@
+package net.vulcandev.raidstats.objects;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Case-insensitive prefix index of strings for tab completion.
+ * Keys are kept in a radix tree whose edges hold whole runs of characters, so a key costs at most two nodes
+ * however long it is. Completing walks the prefix once and then collects matches in order until the limit, so
+ * a lookup costs O(prefix + results) no matter how many keys are indexed. Keys are counted, a key added twice
+ * stays until it is removed twice. Thread safe.
+ */
+public final class PrefixIndex {
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node("");
+    private int size;
+
+    /**
+     * Adds a key, completions return it as given here the first time.
+     */
+    public synchronized void add(String key) {
+        String lower = key.toLowerCase(Locale.ROOT);
+        Node node = root;
+        int i = 0;
+        while (i < lower.length()) {
+            int index = node.find(lower.charAt(i));
+            if (index < 0) {
+                Node leaf = new Node(lower.substring(i));
+                node.insert(-index - 1, leaf);
+                node = leaf;
+                break;
+            }
+
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, lower, i);
+            if (common < child.label.length()) {
+                // Split the edge where the key leaves it
+                Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children = new Node[]{child};
+                node.children[index] = split;
+                child = split;
+            }
+            node = child;
+            i += common;
+        }
+
+        if (node.value == null) {
+            node.value = key;
+            size++;
+        }
+        node.count++;
+    }
+
+    /**
+     * Removes one count of a key.
+     *
+     * @return true if the key was indexed
+     */
+    public synchronized boolean remove(String key) {
+        String lower = key.toLowerCase(Locale.ROOT);
+        Node parent = null;
+        Node node = root;
+        int i = 0;
+        while (i < lower.length()) {
+            int index = node.find(lower.charAt(i));
+            if (index < 0) return false;
+            Node child = node.children[index];
+            if (!lower.startsWith(child.label, i)) return false;
+            parent = node;
+            node = child;
+            i += child.label.length();
+        }
+        if (node.value == null) return false;
+        if (--node.count > 0) return true;
+
+        node.value = null;
+        size--;
+        if (node == root) return true;
+
+        if (node.children.length == 0) {
+            parent.removeChild(node);
+            // The parent may now be a plain edge between two nodes
+            if (parent != root && parent.value == null && parent.children.length == 1) parent.mergeChild();
+        } else if (node.children.length == 1) {
+            node.mergeChild();
+        }
+        return true;
+    }
+
+    /**
+     * Gets the keys starting with a prefix, ignoring case, in alphabetical order.
+     *
+     * @param limit Max keys returned
+     */
+    public synchronized List<String> complete(String prefix, int limit) {
+        String lower = prefix.toLowerCase(Locale.ROOT);
+        Node node = root;
+        int i = 0;
+        while (i < lower.length()) {
+            int index = node.find(lower.charAt(i));
+            if (index < 0) return Collections.emptyList();
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, lower, i);
+            // Either the prefix ends inside this edge, or the whole edge must match
+            if (common < child.label.length() && i + common < lower.length()) return Collections.emptyList();
+            node = child;
+            i += common;
+        }
+
+        List<String> result = new ArrayList<>(Math.min(limit, size));
+        collect(node, result, limit);
+        return result;
+    }
+
+    private static void collect(Node node, List<String> result, int limit) {
+        if (result.size() >= limit) return;
+        if (node.value != null) result.add(node.value);
+        for (Node child : node.children) {
+            if (result.size() >= limit) return;
+            collect(child, result, limit);
+        }
+    }
+
+    /**
+     * Gets the number of distinct keys.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Length of the common prefix of a label and a key from an offset.
+     */
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) i++;
+        return i;
+    }
+
+    /**
+     * A node, reached through an edge labelled with the characters since its parent.
+     */
+    private static final class Node {
+        private String label;
+        // Sorted by the first character of their label, which differs between siblings
+        private Node[] children = NO_CHILDREN;
+        // The key as first added, null if no key ends here
+        private String value;
+        private int count;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Binary searches the child whose label starts with a character.
+         *
+         * @return The child's index, or (-insertion point - 1) if there is none
+         */
+        private int find(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children[mid].label.charAt(0);
+                if (c < first) low = mid + 1;
+                else if (c > first) high = mid - 1;
+                else return mid;
+            }
+            return -low - 1;
+        }
+
+        private void insert(int index, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+
+        private void removeChild(Node child) {
+            int index = find(child.label.charAt(0));
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+            children = shrunk;
+        }
+
+        /**
+         * Absorbs the only child, so no node without a key has a single child.
+         */
+        private void mergeChild() {
+            Node child = children[0];
+            label = label + child.label;
+            children = child.children;
+            value = child.value;
+            count = child.count;
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package net.vulcandev.raidstats.objects;
 
 import com.golfing8.kore.object.Raid;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a single raid with all associated statistics for both factions.
  * Tracks player stats, manages grace periods, and provides stat aggregation methods.
+ * Player stats are stored per faction in {@link StatsColumns}; {@link PlayerStats} objects are views over them.
  */
+@JsonAdapter(RaidStats.Adapter.class)
 public class RaidStats {
     @Getter
     private final UUID id;
@@ -18,25 +29,39 @@ public class RaidStats {
     private final String raidingFaction;
     @Getter
     private final String defendingFaction;
-    // Maps faction ID -> (player UUID -> stats)
-    private final Map<String, Map<UUID, PlayerStats>> factionStats;
+    // Maps faction ID -> columnar player stats, concurrent so async listeners and the GUI can share it
+    private final ConcurrentMap<String, StatsColumns> factionStats;
     @Setter
     @Getter
     private transient Raid koreRaid;
     @Getter
-    @Setter
     private long purgeTime = -1L;
+    // When grace started, 0 for raids restored in grace so every new event counts as in grace
+    private transient long graceStartTime;
+    // Incremented when the grace state changes, stat changes are counted by the columns
+    private final transient AtomicLong stateVersion = new AtomicLong();
+    // Last stat journal segment already included in the saved stats of this raid, -1 if none
+    @Getter
+    @Setter
+    private long journalSegment = -1L;
 
     public RaidStats(String raidingFaction, String defendingFaction, Raid koreRaid) {
-        this.id = UUID.randomUUID();
+        this(UUID.randomUUID(), raidingFaction, defendingFaction, koreRaid);
+    }
+
+    /**
+     * Creates a raid with a known UUID, used when restoring raids from disk.
+     */
+    public RaidStats(UUID id, String raidingFaction, String defendingFaction, Raid koreRaid) {
+        this.id = id;
         this.koreRaid = koreRaid;
         this.raidingFaction = raidingFaction;
         this.defendingFaction = defendingFaction;
-        this.factionStats = new HashMap<>();
+        this.factionStats = new ConcurrentHashMap<>();
 
-        // Initialize stats maps for both factions
-        this.factionStats.put(raidingFaction, new HashMap<>());
-        this.factionStats.put(defendingFaction, new HashMap<>());
+        // Initialize stats for both factions
+        this.factionStats.put(raidingFaction, new StatsColumns());
+        this.factionStats.put(defendingFaction, new StatsColumns());
     }
 
     /**
@@ -44,31 +69,93 @@ public class RaidStats {
      */
     public boolean isGrace() {return purgeTime != -1;}
 
+    /**
+     * Checks if this raid was already in grace period at the given time.
+     * Lets stats captured just before grace started still count when they are applied after it.
+     */
+    public boolean isGraceAt(long timestamp) {return isGrace() && timestamp >= graceStartTime;}
+
+    /**
+     * Puts this raid into grace period, freezing stats until the purge time.
+     *
+     * @param purgeTime When the grace period ends and the raid is purged
+     */
+    public void startGrace(long purgeTime) {
+        this.graceStartTime = System.currentTimeMillis();
+        setPurgeTime(purgeTime);
+    }
+
+    /**
+     * Sets when the grace period ends, or -1 if the raid is not in grace.
+     */
+    public void setPurgeTime(long purgeTime) {
+        this.purgeTime = purgeTime;
+        stateVersion.incrementAndGet();
+    }
+
+    /**
+     * Gets a counter that changes whenever this raid's stats or grace state change.
+     * Two equal reads mean nothing was modified in between.
+     */
+    public long getVersion() {
+        long version = stateVersion.get();
+        for (StatsColumns columns : factionStats.values()) version += columns.getVersion();
+        return version;
+    }
+
+    /**
+     * Gets the IDs of every faction with stats in this raid.
+     */
+    public Set<String> getFactions() {
+        return Collections.unmodifiableSet(factionStats.keySet());
+    }
+
+    /**
+     * Gets the columnar stats of a faction, or null if it has none.
+     */
+    public StatsColumns getColumns(String faction) {
+        return factionStats.get(faction);
+    }
+
     /**
      * Gets all player stats for a specific faction.
+     * Builds a new map of views on each call, prefer the ranking and totals methods where possible.
      */
     public Map<UUID, PlayerStats> getStatsForFaction(String faction) {
-        return factionStats.getOrDefault(faction, new HashMap<>());
+        StatsColumns columns = factionStats.get(faction);
+        if (columns == null || columns.size() == 0) return Collections.emptyMap();
+
+        int size = columns.size();
+        Map<UUID, PlayerStats> stats = new LinkedHashMap<>(size * 2);
+        for (int row = 0; row < size; row++) stats.put(columns.uuidAt(row), new PlayerStats(columns, row));
+        return Collections.unmodifiableMap(stats);
     }
 
     /**
      * Gets stats for a specific player in a faction.
      */
     public PlayerStats getPlayerStats(String faction, UUID playerUUID) {
-        return factionStats.getOrDefault(faction, new HashMap<>()).get(playerUUID);
+        StatsColumns columns = factionStats.get(faction);
+        if (columns == null) return null;
+
+        int row = columns.indexOf(playerUUID);
+        return row < 0 ? null : new PlayerStats(columns, row);
     }
 
     /**
      * Updates a player's stats using a functional updater.
-     * Creates a new PlayerStats object if one doesn't exist.
+     * Creates the player's stats if they don't exist.
      */
     public void updatePlayerStats(String faction, UUID playerUUID, StatsUpdater updater) {
-        factionStats.computeIfAbsent(faction, f -> new HashMap<>())
-                    .compute(playerUUID, (uuid, stats) -> {
-                        if (stats == null) stats = new PlayerStats();
-                        updater.update(stats);
-                        return stats;
-                    });
+        StatsColumns columns = getOrCreateColumns(faction);
+        updater.update(new PlayerStats(columns, columns.indexOrCreate(playerUUID)));
+    }
+
+    /**
+     * Gets the columnar stats of a faction, creating empty columns if it has none.
+     */
+    public StatsColumns getOrCreateColumns(String faction) {
+        return factionStats.computeIfAbsent(faction, f -> new StatsColumns());
     }
 
     /**
@@ -80,21 +167,36 @@ public class RaidStats {
      * @return Ordered map of player UUIDs to their stats
      */
     public Map<UUID, PlayerStats> getTopStats(String factionId, RaidStatType statType, int limit) {
-        Map<UUID, PlayerStats> factionStats = getStatsForFaction(factionId);
+        return getRankedStats(factionId, statType, 0, limit);
+    }
+
+    /**
+     * Gets a range of ranked players for a specific stat type, sorted in descending order.
+     *
+     * @param factionId The faction to get stats for
+     * @param statType The type of stat to rank by
+     * @param from The zero based rank to start from
+     * @param limit Maximum number of players to return
+     * @return Ordered map of player UUIDs to their stats
+     */
+    public Map<UUID, PlayerStats> getRankedStats(String factionId, RaidStatType statType, int from, int limit) {
+        StatsColumns columns = factionStats.get(factionId);
+        if (columns == null) return Collections.emptyMap();
 
-        return factionStats.entrySet().stream()
-                .sorted((entry1, entry2) -> {
-                    int stat1 = statType.getValue(entry1.getValue());
-                    int stat2 = statType.getValue(entry2.getValue());
-                    return Integer.compare(stat2, stat1); // Descending order
-                })
-                .limit(limit)
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (e1, e2) -> e1, // Merge function in case of duplicate keys
-                        LinkedHashMap::new
-                ));
+        Map<UUID, PlayerStats> ranked = new LinkedHashMap<>();
+        for (int row : columns.getLeaderboard(statType).range(from, limit)) {
+            ranked.put(columns.uuidAt(row), new PlayerStats(columns, row));
+        }
+        return ranked;
+    }
+
+    /**
+     * Gets a player's zero based rank for a specific stat type, or -1 if they have no stats.
+     */
+    public int getRank(String factionId, RaidStatType statType, UUID playerUUID) {
+        StatsColumns columns = factionStats.get(factionId);
+        if (columns == null) return -1;
+        return columns.getLeaderboard(statType).rankOf(columns.indexOf(playerUUID));
     }
 
     /**
@@ -105,7 +207,8 @@ public class RaidStats {
      * @param kills     The number of kills to add (can be negative for decrement).
      */
     public void addKill(String faction, UUID playerUUID, int kills) {
-        updatePlayerStats(faction, playerUUID, stats -> stats.addKills(kills));
+        StatsColumns columns = getOrCreateColumns(faction);
+        columns.addKills(columns.indexOrCreate(playerUUID), kills);
     }
 
     /**
@@ -116,7 +219,8 @@ public class RaidStats {
      * @param deaths    The number of deaths to add (can be negative for decrement).
      */
     public void addDeath(String faction, UUID playerUUID, int deaths) {
-        updatePlayerStats(faction, playerUUID, stats -> stats.addDeaths(deaths));
+        StatsColumns columns = getOrCreateColumns(faction);
+        columns.addDeaths(columns.indexOrCreate(playerUUID), deaths);
     }
 
     /**
@@ -127,7 +231,8 @@ public class RaidStats {
      * @param damage    The amount of damage given to add (can be negative for decrement).
      */
     public void addDamageGiven(String faction, UUID playerUUID, double damage) {
-        updatePlayerStats(faction, playerUUID, stats -> stats.addDamageGiven(damage));
+        StatsColumns columns = getOrCreateColumns(faction);
+        columns.addDamageGiven(columns.indexOrCreate(playerUUID), damage);
     }
 
     /**
@@ -138,7 +243,8 @@ public class RaidStats {
      * @param damage    The amount of damage taken to add (can be negative for decrement).
      */
     public void addDamageTaken(String faction, UUID playerUUID, double damage) {
-        updatePlayerStats(faction, playerUUID, stats -> stats.addDamageTaken(damage));
+        StatsColumns columns = getOrCreateColumns(faction);
+        columns.addDamageTaken(columns.indexOrCreate(playerUUID), damage);
     }
 
     /**
@@ -148,38 +254,162 @@ public class RaidStats {
      * @param playerUUID The UUID of the player.
      */
     public void addBlocksPlaced(String faction, UUID playerUUID) {
-        updatePlayerStats(faction, playerUUID, PlayerStats::addBlocksPlaced);
+        StatsColumns columns = getOrCreateColumns(faction);
+        columns.addBlocksPlaced(columns.indexOrCreate(playerUUID));
+    }
+
+    /**
+     * Gets a snapshot of the total stats for all players in a faction.
+     * Totals are kept up to date as stats change, so this never walks the players.
+     *
+     * @param factionId The faction to get totals for
+     * @return Immutable snapshot of the faction's totals
+     */
+    public StatTotals getTotals(String factionId) {
+        StatsColumns columns = factionStats.get(factionId);
+        return columns == null ? StatTotals.EMPTY : columns.getTotals().snapshot();
     }
 
     /**
      * Calculates the total stats for all players in a faction.
-     * Aggregates individual player stats into faction-wide totals.
      *
      * @param factionId The faction to calculate totals for
      * @return Map of stat types to their total values
+     * @deprecated Values are truncated to int, use {@link #getTotals(String)} instead.
      */
+    @Deprecated
     public Map<RaidStatType, Integer> getFactionTotals(String factionId) {
-        // Initialize totals map with default values for both integer and double stats
+        StatTotals factionTotals = getTotals(factionId);
         Map<RaidStatType, Integer> combinedTotals = new EnumMap<>(RaidStatType.class);
+        for (RaidStatType statType : RaidStatType.values()) combinedTotals.put(statType, (int) factionTotals.get(statType));
+        return combinedTotals;
+    }
+
+    /**
+     * Reads and writes raids in the original JSON layout, with player stats nested by faction and UUID,
+     * so existing save files keep loading.
+     */
+    public static class Adapter extends TypeAdapter<RaidStats> {
+        @Override
+        public void write(JsonWriter out, RaidStats raid) throws IOException {
+            if (raid == null) {
+                out.nullValue();
+                return;
+            }
 
-        // Initialize the map with zero values for all stat types
-        Arrays.stream(RaidStatType.values())
-                .forEach(statType -> combinedTotals.put(statType, 0));
-
-        // Get the stats for the given faction
-        Map<UUID, PlayerStats> statsForFaction = getStatsForFaction(factionId);
-
-        // Sum up the stats for all players in the faction
-        for (PlayerStats stats : statsForFaction.values()) {
-            combinedTotals.merge(RaidStatType.KILLS, stats.getKills(), Integer::sum);
-            combinedTotals.merge(RaidStatType.DEATHS, stats.getDeaths(), Integer::sum);
-            combinedTotals.merge(RaidStatType.BLOCKS_PLACED, stats.getBlocksPlaced(), Integer::sum);
-            combinedTotals.merge(RaidStatType.HITS_DEALT, stats.getHitsDealt(), Integer::sum);
-            combinedTotals.merge(RaidStatType.HITS_TAKEN, stats.getHitsTaken(), Integer::sum);
-            combinedTotals.merge(RaidStatType.DAMAGE_GIVEN, stats.getDamageDealt(), Integer::sum);
-            combinedTotals.merge(RaidStatType.DAMAGE_TAKEN, stats.getDamageTaken(), Integer::sum);
+            out.beginObject();
+            out.name("id").value(raid.id.toString());
+            out.name("raidingFaction").value(raid.raidingFaction);
+            out.name("defendingFaction").value(raid.defendingFaction);
+
+            out.name("factionStats").beginObject();
+            for (Map.Entry<String, StatsColumns> entry : raid.factionStats.entrySet()) {
+                StatsColumns columns = entry.getValue();
+                out.name(entry.getKey()).beginObject();
+                for (int row = 0, size = columns.size(); row < size; row++) {
+                    out.name(columns.uuidAt(row).toString()).beginObject();
+                    out.name("kills").value(columns.getKills(row));
+                    out.name("deaths").value(columns.getDeaths(row));
+                    out.name("damageDealt").value(columns.getDamageDealt(row));
+                    out.name("hitsDealt").value(columns.getHitsDealt(row));
+                    out.name("hitsTaken").value(columns.getHitsTaken(row));
+                    out.name("damageTaken").value(columns.getDamageTaken(row));
+                    out.name("blocksPlaced").value(columns.getBlocksPlaced(row));
+                    out.endObject();
+                }
+                out.endObject();
+            }
+            out.endObject();
+
+            out.name("purgeTime").value(raid.purgeTime);
+            out.name("journalSegment").value(raid.journalSegment);
+            out.endObject();
         }
 
-        return combinedTotals;
+        @Override
+        public RaidStats read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            UUID id = null;
+            String raidingFaction = null;
+            String defendingFaction = null;
+            long purgeTime = -1L;
+            long journalSegment = -1L;
+            Map<String, StatsColumns> factionStats = new HashMap<>();
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        id = UUID.fromString(in.nextString());
+                        break;
+                    case "raidingFaction":
+                        raidingFaction = in.nextString();
+                        break;
+                    case "defendingFaction":
+                        defendingFaction = in.nextString();
+                        break;
+                    case "purgeTime":
+                        purgeTime = in.nextLong();
+                        break;
+                    case "journalSegment":
+                        journalSegment = in.nextLong();
+                        break;
+                    case "factionStats":
+                        readFactionStats(in, factionStats);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            if (id == null || raidingFaction == null || defendingFaction == null) {
+                throw new JsonParseException("Raid is missing its id or factions");
+            }
+
+            RaidStats raid = new RaidStats(id, raidingFaction, defendingFaction, null);
+            raid.factionStats.putAll(factionStats);
+            raid.purgeTime = purgeTime;
+            raid.journalSegment = journalSegment;
+            return raid;
+        }
+
+        private void readFactionStats(JsonReader in, Map<String, StatsColumns> factionStats) throws IOException {
+            in.beginObject();
+            while (in.hasNext()) {
+                StatsColumns columns = new StatsColumns();
+                factionStats.put(in.nextName(), columns);
+
+                in.beginObject();
+                while (in.hasNext()) {
+                    UUID playerUUID = UUID.fromString(in.nextName());
+                    int kills = 0, deaths = 0, hitsDealt = 0, hitsTaken = 0, blocksPlaced = 0;
+                    double damageDealt = 0D, damageTaken = 0D;
+
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        switch (in.nextName()) {
+                            case "kills": kills = in.nextInt(); break;
+                            case "deaths": deaths = in.nextInt(); break;
+                            case "damageDealt": damageDealt = in.nextDouble(); break;
+                            case "hitsDealt": hitsDealt = in.nextInt(); break;
+                            case "hitsTaken": hitsTaken = in.nextInt(); break;
+                            case "damageTaken": damageTaken = in.nextDouble(); break;
+                            case "blocksPlaced": blocksPlaced = in.nextInt(); break;
+                            default: in.skipValue();
+                        }
+                    }
+                    in.endObject();
+
+                    columns.load(playerUUID, kills, deaths, damageDealt, hitsDealt, hitsTaken, damageTaken, blocksPlaced);
+                }
+                in.endObject();
+            }
+            in.endObject();
+        }
     }
 }
@@ -0,0 +1,144 @@
+package net.vulcandev.raidstats.objects;
+
+import java.util.Arrays;
+
+/**
+ * Lifetime stat totals keyed by player UUID or faction ID.
+ * Keys map to dense rows through an open addressing table, and the totals of every row are held in
+ * primitive arrays, so looking up a key costs the same however many raids were merged into it.
+ * Not thread safe, callers hold their own lock.
+ *
+ * @param <K> Key type, must implement hashCode and equals
+ */
+public class RollupTable<K> {
+    // Count columns
+    private static final int RAIDS = 0;
+    private static final int KILLS = 1;
+    private static final int DEATHS = 2;
+    private static final int BLOCKS_PLACED = 3;
+    private static final int HITS_DEALT = 4;
+    private static final int HITS_TAKEN = 5;
+    private static final int COUNT_COLUMNS = 6;
+
+    // Damage columns
+    private static final int DAMAGE_DEALT = 0;
+    private static final int DAMAGE_TAKEN = 1;
+    private static final int DAMAGE_COLUMNS = 2;
+
+    private Object[] keys = new Object[16];
+    // Row + 1, zero marks an empty slot
+    private int[] slots = new int[16];
+    private Object[] rowKeys = new Object[16];
+    private long[] counts = new long[16 * COUNT_COLUMNS];
+    private double[] damage = new double[16 * DAMAGE_COLUMNS];
+    private int size;
+
+    /**
+     * Gets the lifetime line of a key, or null if nothing was merged into it.
+     */
+    public LifetimeStats get(K key) {
+        int row = indexOf(key);
+        return row < 0 ? null : getRow(row);
+    }
+
+    /**
+     * Gets the lifetime line of a row.
+     */
+    public LifetimeStats getRow(int row) {
+        int base = row * COUNT_COLUMNS;
+        int damageBase = row * DAMAGE_COLUMNS;
+        return new LifetimeStats(counts[base + RAIDS], new StatTotals(counts[base + KILLS], counts[base + DEATHS],
+                counts[base + BLOCKS_PLACED], counts[base + HITS_DEALT], counts[base + HITS_TAKEN],
+                damage[damageBase + DAMAGE_DEALT], damage[damageBase + DAMAGE_TAKEN]));
+    }
+
+    /**
+     * Adds one raid's stats to a key's totals.
+     */
+    public void merge(K key, long raids, long kills, long deaths, long blocksPlaced, long hitsDealt, long hitsTaken,
+                      double damageDealt, double damageTaken) {
+        int row = indexOrCreate(key);
+        int base = row * COUNT_COLUMNS;
+        counts[base + RAIDS] += raids;
+        counts[base + KILLS] += kills;
+        counts[base + DEATHS] += deaths;
+        counts[base + BLOCKS_PLACED] += blocksPlaced;
+        counts[base + HITS_DEALT] += hitsDealt;
+        counts[base + HITS_TAKEN] += hitsTaken;
+
+        int damageBase = row * DAMAGE_COLUMNS;
+        damage[damageBase + DAMAGE_DEALT] += damageDealt;
+        damage[damageBase + DAMAGE_TAKEN] += damageTaken;
+    }
+
+    /**
+     * Adds a saved lifetime line to a key's totals.
+     */
+    public void merge(K key, LifetimeStats stats) {
+        StatTotals totals = stats.getTotals();
+        merge(key, stats.getRaids(), totals.getKills(), totals.getDeaths(), totals.getBlocksPlaced(),
+                totals.getHitsDealt(), totals.getHitsTaken(), totals.getDamageDealt(), totals.getDamageTaken());
+    }
+
+    /**
+     * Gets the key of a row, rows are numbered from 0 to {@link #size()} in insertion order.
+     */
+    @SuppressWarnings("unchecked")
+    public K keyAt(int row) {
+        return (K) rowKeys[row];
+    }
+
+    /**
+     * Gets the number of keys.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int indexOf(K key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (true) {
+            int row = slots[slot];
+            if (row == 0) return -1;
+            if (keys[slot].equals(key)) return row - 1;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int indexOrCreate(K key) {
+        int row = indexOf(key);
+        if (row >= 0) return row;
+
+        row = size++;
+        if (row == rowKeys.length) {
+            rowKeys = Arrays.copyOf(rowKeys, row << 1);
+            counts = Arrays.copyOf(counts, (row << 1) * COUNT_COLUMNS);
+            damage = Arrays.copyOf(damage, (row << 1) * DAMAGE_COLUMNS);
+        }
+        rowKeys[row] = key;
+        if (size * 2 > keys.length) resize();
+        else put(key, row);
+        return row;
+    }
+
+    private void put(K key, int row) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (slots[slot] != 0) slot = (slot + 1) & mask;
+        keys[slot] = key;
+        slots[slot] = row + 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize() {
+        keys = new Object[keys.length << 1];
+        slots = new int[slots.length << 1];
+        for (int row = 0; row < size; row++) put((K) rowKeys[row], row);
+    }
+
+    private static int hash(Object key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,46 @@
+package net.vulcandev.raidstats.objects;
+
+import lombok.Getter;
+
+/**
+ * Immutable snapshot of a faction's stat totals in a raid.
+ * Counts are longs and damage stays a double so large raids don't overflow or lose precision.
+ */
+@Getter
+public final class StatTotals {
+    public static final StatTotals EMPTY = new StatTotals(0, 0, 0, 0, 0, 0D, 0D);
+
+    private final long kills;
+    private final long deaths;
+    private final long blocksPlaced;
+    private final long hitsDealt;
+    private final long hitsTaken;
+    private final double damageDealt;
+    private final double damageTaken;
+
+    public StatTotals(long kills, long deaths, long blocksPlaced, long hitsDealt, long hitsTaken, double damageDealt, double damageTaken) {
+        this.kills = kills;
+        this.deaths = deaths;
+        this.blocksPlaced = blocksPlaced;
+        this.hitsDealt = hitsDealt;
+        this.hitsTaken = hitsTaken;
+        this.damageDealt = damageDealt;
+        this.damageTaken = damageTaken;
+    }
+
+    /**
+     * Gets the total for a stat type, with damage truncated to whole points.
+     */
+    public long get(RaidStatType statType) {
+        switch (statType) {
+            case KILLS: return kills;
+            case DEATHS: return deaths;
+            case BLOCKS_PLACED: return blocksPlaced;
+            case HITS_DEALT: return hitsDealt;
+            case HITS_TAKEN: return hitsTaken;
+            case DAMAGE_GIVEN: return (long) damageDealt;
+            case DAMAGE_TAKEN: return (long) damageTaken;
+            default: return 0L;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package net.vulcandev.raidstats.objects;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Columnar stat storage for the players of one faction in a raid.
+ * Each player gets a dense row index through a UUID index held as two longs, and each stat is a column of
+ * primitives. Columns live in fixed size chunks behind a directory that grows geometrically, so rows never
+ * move and counters can be updated with a CAS and no lock. Running totals and leaderboards are updated
+ * together with the columns, whichever way a stat is changed.
+ */
+public class StatsColumns {
+    private static final int CHUNK_SHIFT = 7;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // Int columns
+    private static final int KILLS = 0;
+    private static final int DEATHS = 1;
+    private static final int HITS_DEALT = 2;
+    private static final int HITS_TAKEN = 3;
+    private static final int BLOCKS_PLACED = 4;
+    private static final int INT_COLUMNS = 5;
+
+    // Double columns, stored as raw long bits
+    private static final int DAMAGE_DEALT = 0;
+    private static final int DAMAGE_TAKEN = 1;
+    private static final int DOUBLE_COLUMNS = 2;
+
+    private static final RaidStatType[] KILL_STATS = {RaidStatType.KILLS};
+    private static final RaidStatType[] DEATH_STATS = {RaidStatType.DEATHS};
+    private static final RaidStatType[] DAMAGE_GIVEN_STATS = {RaidStatType.DAMAGE_GIVEN, RaidStatType.HITS_DEALT};
+    private static final RaidStatType[] DAMAGE_TAKEN_STATS = {RaidStatType.DAMAGE_TAKEN, RaidStatType.HITS_TAKEN};
+    private static final RaidStatType[] BLOCK_STATS = {RaidStatType.BLOCKS_PLACED};
+
+    private volatile Chunk[] chunks = new Chunk[1];
+    private volatile IndexTable index = new IndexTable(16);
+    private volatile int size;
+    private final FactionTotals totals = new FactionTotals();
+    // Incremented on every change, used to detect unsaved stats
+    private final AtomicLong version = new AtomicLong();
+    // Read only after construction
+    private final Map<RaidStatType, Leaderboard> leaderboards = new EnumMap<>(RaidStatType.class);
+
+    public StatsColumns() {
+        for (RaidStatType statType : RaidStatType.values()) leaderboards.put(statType, new Leaderboard());
+    }
+
+    /**
+     * Gets the row of a player, or -1 if they have no stats yet.
+     */
+    public int indexOf(UUID playerUUID) {
+        return index.get(playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits());
+    }
+
+    /**
+     * Gets the row of a player, adding an empty row if they have no stats yet.
+     */
+    public int indexOrCreate(UUID playerUUID) {
+        int row = indexOf(playerUUID);
+        if (row >= 0) return row;
+
+        synchronized (this) {
+            long most = playerUUID.getMostSignificantBits();
+            long least = playerUUID.getLeastSignificantBits();
+            row = index.get(most, least);
+            if (row >= 0) return row;
+
+            row = size;
+            Chunk[] directory = chunks;
+            int chunk = row >>> CHUNK_SHIFT;
+            if (chunk >= directory.length) {
+                Chunk[] grown = new Chunk[directory.length << 1];
+                System.arraycopy(directory, 0, grown, 0, directory.length);
+                directory = grown;
+            }
+            if (directory[chunk] == null) directory[chunk] = new Chunk();
+            directory[chunk].uuidMost[row & CHUNK_MASK] = most;
+            directory[chunk].uuidLeast[row & CHUNK_MASK] = least;
+            chunks = directory;
+
+            // Publishing the index entry makes the row visible to lock-free readers
+            IndexTable table = index;
+            if ((row + 1) * 2 > table.capacity()) {
+                table = table.resize();
+                index = table;
+            }
+            table.put(most, least, row);
+            size = row + 1;
+            return row;
+        }
+    }
+
+    /**
+     * Gets the number of players with stats.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets a counter that changes whenever any stat in these columns changes.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Gets the UUID of the player in a row.
+     */
+    public UUID uuidAt(int row) {
+        Chunk chunk = chunks[row >>> CHUNK_SHIFT];
+        return new UUID(chunk.uuidMost[row & CHUNK_MASK], chunk.uuidLeast[row & CHUNK_MASK]);
+    }
+
+    public int getKills(int row) {
+        return getInt(row, KILLS);
+    }
+
+    public int getDeaths(int row) {
+        return getInt(row, DEATHS);
+    }
+
+    public int getHitsDealt(int row) {
+        return getInt(row, HITS_DEALT);
+    }
+
+    public int getHitsTaken(int row) {
+        return getInt(row, HITS_TAKEN);
+    }
+
+    public int getBlocksPlaced(int row) {
+        return getInt(row, BLOCKS_PLACED);
+    }
+
+    public double getDamageDealt(int row) {
+        return getDouble(row, DAMAGE_DEALT);
+    }
+
+    public double getDamageTaken(int row) {
+        return getDouble(row, DAMAGE_TAKEN);
+    }
+
+    /**
+     * Gets a player's value for a stat type, with damage truncated to whole points.
+     */
+    public int getValue(RaidStatType statType, int row) {
+        switch (statType) {
+            case KILLS: return getKills(row);
+            case DEATHS: return getDeaths(row);
+            case BLOCKS_PLACED: return getBlocksPlaced(row);
+            case HITS_DEALT: return getHitsDealt(row);
+            case HITS_TAKEN: return getHitsTaken(row);
+            case DAMAGE_GIVEN: return (int) getDamageDealt(row);
+            case DAMAGE_TAKEN: return (int) getDamageTaken(row);
+            default: return 0;
+        }
+    }
+
+    public void addKills(int row, int kills) {
+        addInt(row, KILLS, kills);
+        totals.addKills(kills);
+        rank(row, KILL_STATS);
+        version.incrementAndGet();
+    }
+
+    public void addDeaths(int row, int deaths) {
+        addInt(row, DEATHS, deaths);
+        totals.addDeaths(deaths);
+        rank(row, DEATH_STATS);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Records damage dealt and increments the hit counter.
+     */
+    public void addDamageGiven(int row, double damage) {
+        addDouble(row, DAMAGE_DEALT, damage);
+        addInt(row, HITS_DEALT, 1);
+        totals.addDamageGiven(damage, 1);
+        rank(row, DAMAGE_GIVEN_STATS);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Records damage taken and increments the hit counter.
+     */
+    public void addDamageTaken(int row, double damage) {
+        addDouble(row, DAMAGE_TAKEN, damage);
+        addInt(row, HITS_TAKEN, 1);
+        totals.addDamageTaken(damage, 1);
+        rank(row, DAMAGE_TAKEN_STATS);
+        version.incrementAndGet();
+    }
+
+    public void addBlocksPlaced(int row) {
+        addInt(row, BLOCKS_PLACED, 1);
+        totals.addBlocksPlaced(1);
+        rank(row, BLOCK_STATS);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Adds a full set of stats to a player, used when restoring raids from disk.
+     */
+    public void load(UUID playerUUID, int kills, int deaths, double damageDealt, int hitsDealt, int hitsTaken, double damageTaken, int blocksPlaced) {
+        int row = indexOrCreate(playerUUID);
+        addInt(row, KILLS, kills);
+        addInt(row, DEATHS, deaths);
+        addDouble(row, DAMAGE_DEALT, damageDealt);
+        addInt(row, HITS_DEALT, hitsDealt);
+        addInt(row, HITS_TAKEN, hitsTaken);
+        addDouble(row, DAMAGE_TAKEN, damageTaken);
+        addInt(row, BLOCKS_PLACED, blocksPlaced);
+
+        totals.addKills(kills);
+        totals.addDeaths(deaths);
+        totals.addDamageGiven(damageDealt, hitsDealt);
+        totals.addDamageTaken(damageTaken, hitsTaken);
+        totals.addBlocksPlaced(blocksPlaced);
+        rank(row, RaidStatType.values());
+        version.incrementAndGet();
+    }
+
+    /**
+     * Gets the running totals of all players.
+     */
+    public FactionTotals getTotals() {
+        return totals;
+    }
+
+    /**
+     * Gets the ranking of players for a stat type.
+     */
+    public Leaderboard getLeaderboard(RaidStatType statType) {
+        return leaderboards.get(statType);
+    }
+
+    private void rank(int row, RaidStatType[] changed) {
+        for (RaidStatType statType : changed) leaderboards.get(statType).update(row, this, statType);
+    }
+
+    private int getInt(int row, int column) {
+        return chunks[row >>> CHUNK_SHIFT].counts.get(column * CHUNK_SIZE + (row & CHUNK_MASK));
+    }
+
+    private void addInt(int row, int column, int delta) {
+        chunks[row >>> CHUNK_SHIFT].counts.addAndGet(column * CHUNK_SIZE + (row & CHUNK_MASK), delta);
+    }
+
+    private double getDouble(int row, int column) {
+        return Double.longBitsToDouble(chunks[row >>> CHUNK_SHIFT].damage.get(column * CHUNK_SIZE + (row & CHUNK_MASK)));
+    }
+
+    private void addDouble(int row, int column, double delta) {
+        AtomicLongArray damage = chunks[row >>> CHUNK_SHIFT].damage;
+        int slot = column * CHUNK_SIZE + (row & CHUNK_MASK);
+        while (true) {
+            long current = damage.get(slot);
+            long next = Double.doubleToRawLongBits(Double.longBitsToDouble(current) + delta);
+            if (damage.compareAndSet(slot, current, next)) return;
+        }
+    }
+
+    /**
+     * A fixed block of rows, laid out column by column.
+     */
+    private static final class Chunk {
+        private final AtomicIntegerArray counts = new AtomicIntegerArray(INT_COLUMNS * CHUNK_SIZE);
+        private final AtomicLongArray damage = new AtomicLongArray(DOUBLE_COLUMNS * CHUNK_SIZE);
+        private final long[] uuidMost = new long[CHUNK_SIZE];
+        private final long[] uuidLeast = new long[CHUNK_SIZE];
+    }
+
+    /**
+     * Open addressing UUID to row table.
+     * Only written under the owning StatsColumns lock; readers see an entry once its row slot is published.
+     */
+    private static final class IndexTable {
+        private final long[] most;
+        private final long[] least;
+        // Row + 1, zero marks an empty slot
+        private final AtomicIntegerArray rows;
+        private final int mask;
+
+        private IndexTable(int capacity) {
+            this.most = new long[capacity];
+            this.least = new long[capacity];
+            this.rows = new AtomicIntegerArray(capacity);
+            this.mask = capacity - 1;
+        }
+
+        private int capacity() {
+            return mask + 1;
+        }
+
+        private int get(long mostBits, long leastBits) {
+            int slot = hash(mostBits, leastBits) & mask;
+            while (true) {
+                int row = rows.get(slot);
+                if (row == 0) return -1;
+                if (most[slot] == mostBits && least[slot] == leastBits) return row - 1;
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private void put(long mostBits, long leastBits, int row) {
+            int slot = hash(mostBits, leastBits) & mask;
+            while (rows.get(slot) != 0) slot = (slot + 1) & mask;
+            most[slot] = mostBits;
+            least[slot] = leastBits;
+            rows.set(slot, row + 1);
+        }
+
+        private IndexTable resize() {
+            IndexTable resized = new IndexTable(capacity() << 1);
+            for (int slot = 0; slot <= mask; slot++) {
+                int row = rows.get(slot);
+                if (row != 0) resized.put(most[slot], least[slot], row - 1);
+            }
+            return resized;
+        }
+
+        private static int hash(long mostBits, long leastBits) {
+            long hash = (mostBits ^ leastBits) * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package net.vulcandev.raidstats.pipeline;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns faction IDs into small int handles so stat snapshots can stay primitive-only.
+ * Handles are never reused, faction IDs are few and long lived so the table stays small.
+ */
+public class FactionHandles {
+    public static final int NONE = -1;
+
+    private final Map<String, Integer> handles = new ConcurrentHashMap<>();
+    private volatile String[] ids = new String[64];
+    private int next;
+
+    /**
+     * Gets the handle for a faction ID, assigning one on first use.
+     */
+    public int handleOf(String factionId) {
+        if (factionId == null) return NONE;
+
+        Integer handle = handles.get(factionId);
+        if (handle != null) return handle;
+
+        synchronized (this) {
+            handle = handles.get(factionId);
+            if (handle != null) return handle;
+
+            int assigned = next++;
+            String[] current = ids;
+            if (assigned >= current.length) {
+                String[] grown = new String[current.length << 1];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                current = grown;
+            }
+            current[assigned] = factionId;
+            // Publish the array before the handle so readers always find the ID
+            ids = current;
+            handles.put(factionId, assigned);
+            return assigned;
+        }
+    }
+
+    /**
+     * Gets the faction ID for a handle, or null for {@link #NONE}.
+     */
+    public String idOf(int handle) {
+        if (handle == NONE) return null;
+        return ids[handle];
+    }
+}
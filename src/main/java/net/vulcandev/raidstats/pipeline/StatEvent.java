@@ -0,0 +1,81 @@
+package net.vulcandev.raidstats.pipeline;
+
+import java.util.UUID;
+
+/**
+ * Compact snapshot of a stat-relevant event, filled on the main thread and applied later by the pipeline.
+ * Holds only primitives (UUID bits, interned faction handles, damage and a timestamp) so nothing from the
+ * Bukkit event outlives it. Instances are pooled: they are written once before being queued and are
+ * read-only until the consumer hands them back to the pool.
+ */
+public final class StatEvent {
+    /**
+     * The kind of stat change a snapshot describes.
+     */
+    public enum Type {
+        DAMAGE,
+        KILL,
+        BLOCK_PLACE
+    }
+
+    private Type type;
+    // Attacker, killer or block placer
+    private long actorMost;
+    private long actorLeast;
+    private int actorFaction;
+    // Damaged or dead player, unused for block places
+    private long targetMost;
+    private long targetLeast;
+    // Target's faction, or the claim owner for block places
+    private int targetFaction;
+    private double damage;
+    private long timestamp;
+
+    StatEvent() {}
+
+    /**
+     * Fills this snapshot. Only called on a pooled instance before it is queued.
+     */
+    void set(Type type, UUID actor, int actorFaction, UUID target, int targetFaction, double damage, long timestamp) {
+        this.type = type;
+        this.actorMost = actor.getMostSignificantBits();
+        this.actorLeast = actor.getLeastSignificantBits();
+        this.actorFaction = actorFaction;
+        this.targetMost = target == null ? 0L : target.getMostSignificantBits();
+        this.targetLeast = target == null ? 0L : target.getLeastSignificantBits();
+        this.targetFaction = targetFaction;
+        this.damage = damage;
+        this.timestamp = timestamp;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public UUID getActor() {
+        return new UUID(actorMost, actorLeast);
+    }
+
+    public int getActorFaction() {
+        return actorFaction;
+    }
+
+    public UUID getTarget() {
+        return new UUID(targetMost, targetLeast);
+    }
+
+    public int getTargetFaction() {
+        return targetFaction;
+    }
+
+    public double getDamage() {
+        return damage;
+    }
+
+    /**
+     * Gets when the event happened on the main thread, in epoch millis.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,93 @@
+package net.vulcandev.raidstats.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer multi-consumer ring buffer.
+ * Each slot carries a sequence number that tells producers and consumers whether it is free or filled,
+ * so each side only contends on a single CAS of its cursor and never blocks.
+ *
+ * @param <E> The element type
+ */
+public class StatEventQueue<E> {
+    private final int mask;
+    private final AtomicReferenceArray<E> buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Creates a queue holding at least the given number of elements, rounded up to a power of two.
+     */
+    public StatEventQueue(int capacity) {
+        if (capacity < 2) throw new IllegalArgumentException("Queue capacity must be at least 2: " + capacity);
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+    }
+
+    /**
+     * Adds an element without blocking.
+     *
+     * @return false if the queue is full and the element was not added
+     */
+    public boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer.lazySet(index, element);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Removes the next element without blocking.
+     *
+     * @return The next element, or null if none is ready
+     */
+    public E poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = buffer.get(index);
+                    buffer.lazySet(index, null);
+                    sequences.lazySet(index, position + mask + 1);
+                    return element;
+                }
+            } else if (difference < 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Gets the approximate number of queued elements.
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    /**
+     * Gets the number of slots in the queue.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,297 @@
+package net.vulcandev.raidstats.pipeline;
+
+import net.vulcandev.raidstats.VulcanRaidStats;
+import net.vulcandev.raidstats.data.StatJournal;
+import net.vulcandev.raidstats.manager.StatsManager;
+import net.vulcandev.raidstats.objects.RaidStatType;
+import net.vulcandev.raidstats.objects.RaidStats;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Batches stat events from the listeners and applies them to raids off the main thread.
+ * Listeners fill pooled snapshots that are pushed into a bounded lock-free queue; a single async consumer
+ * drains it every tick and returns the snapshots to the pool.
+ * Every change to the tracked raids goes through the pipeline's apply lock and is recorded in the stat journal,
+ * so a checkpoint taken under the same lock sees exactly the changes journaled before it.
+ */
+public class StatsPipeline {
+    private final VulcanRaidStats plugin;
+    private final StatsManager statsManager;
+    private final StatJournal journal;
+    private final StatEventQueue<StatEvent> queue;
+    // Free snapshots, sized like the queue so a full queue never needs fresh allocations
+    private final StatEventQueue<StatEvent> pool;
+    private final FactionHandles factionHandles = new FactionHandles();
+    private final int batchSize;
+    // Guards the queue's single consumer and raid lifecycle changes, async timer runs may overlap
+    private final ReentrantLock applyLock = new ReentrantLock();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private BukkitTask task;
+
+    public StatsPipeline(VulcanRaidStats plugin, StatsManager statsManager, StatJournal journal) {
+        this.plugin = plugin;
+        this.statsManager = statsManager;
+        this.journal = journal;
+        this.queue = new StatEventQueue<>(plugin.conf().getInt("stats-pipeline.queue-capacity", 8192));
+        this.pool = new StatEventQueue<>(queue.capacity());
+        this.batchSize = plugin.conf().getInt("stats-pipeline.batch-size", 2048);
+
+        for (int i = 0; i < pool.capacity(); i++) pool.offer(new StatEvent());
+    }
+
+    /**
+     * Starts draining the queue every tick.
+     */
+    public void start() {
+        task = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, () -> drain(batchSize), 1L, 1L);
+    }
+
+    /**
+     * Stops the consumer and applies everything still queued.
+     */
+    public void stop() {
+        if (task != null) task.cancel();
+        runExclusive(() -> applyQueued(Integer.MAX_VALUE));
+    }
+
+    /**
+     * Runs a task while no events are being applied, waiting for the current batch if needed.
+     */
+    public void runExclusive(Runnable task) {
+        applyLock.lock();
+        try {
+            task.run();
+        } finally {
+            applyLock.unlock();
+        }
+    }
+
+    /**
+     * Computes a value while no events are being applied, waiting for the current batch if needed.
+     */
+    public <T> T callExclusive(Supplier<T> task) {
+        applyLock.lock();
+        try {
+            return task.get();
+        } finally {
+            applyLock.unlock();
+        }
+    }
+
+    /**
+     * Starts tracking a raid.
+     */
+    public void startRaid(RaidStats raid) {
+        runExclusive(() -> {
+            statsManager.addRaid(raid);
+            journal.appendRaidStart(raid);
+        });
+    }
+
+    /**
+     * Puts a raid into grace period, freezing its stats until the purge time.
+     */
+    public void startGrace(RaidStats raid, long purgeTime) {
+        runExclusive(() -> {
+            raid.startGrace(purgeTime);
+            journal.appendGrace(raid);
+        });
+    }
+
+    /**
+     * Stops tracking a raid and archives it.
+     * The raid is archived before its end is journaled, all under the apply lock, so neither a crash nor a
+     * checkpoint in between can drop it. A raid that fails to archive stays tracked and is archived once it
+     * ends again. Does disk I/O, so it should not be called on the main thread.
+     *
+     * @return true if the raid ended, no further stats are applied to it
+     */
+    public boolean endRaid(RaidStats raid) {
+        return callExclusive(() -> {
+            if (!statsManager.removeRaid(raid)) return false;
+            if (!plugin.getDataManager().archiveRaid(raid, System.currentTimeMillis())) {
+                statsManager.addRaid(raid);
+                return false;
+            }
+            journal.appendRaidEnd(raid);
+            return true;
+        });
+    }
+
+    /**
+     * Stops tracking every raid.
+     */
+    public void clearRaids() {
+        runExclusive(() -> {
+            for (RaidStats raid : statsManager.getAllRaids()) journal.appendRaidEnd(raid);
+            statsManager.clearAllRaids();
+        });
+    }
+
+    /**
+     * Queues damage dealt by one player to another.
+     */
+    public void submitDamage(UUID attacker, String attackerFaction, UUID damaged, String damagedFaction, double damage) {
+        submit(StatEvent.Type.DAMAGE, attacker, attackerFaction, damaged, damagedFaction, damage);
+    }
+
+    /**
+     * Queues a player killing another player.
+     */
+    public void submitKill(UUID killer, String killerFaction, UUID dead, String deadFaction) {
+        submit(StatEvent.Type.KILL, killer, killerFaction, dead, deadFaction, 0D);
+    }
+
+    /**
+     * Queues a block placed inside a claim that is being raided.
+     */
+    public void submitBlockPlace(UUID player, String playerFaction, String claimFaction) {
+        submit(StatEvent.Type.BLOCK_PLACE, player, playerFaction, null, claimFaction, 0D);
+    }
+
+    /**
+     * Fills a pooled snapshot and queues it without blocking.
+     * If the queue is full the event is dropped and counted.
+     */
+    private void submit(StatEvent.Type type, UUID actor, String actorFaction, UUID target, String targetFaction, double damage) {
+        StatEvent event = pool.poll();
+        if (event == null) event = new StatEvent();
+
+        event.set(type, actor, factionHandles.handleOf(actorFaction), target, factionHandles.handleOf(targetFaction),
+                damage, System.currentTimeMillis());
+
+        if (!queue.offer(event)) {
+            dropped.incrementAndGet();
+            pool.offer(event);
+        }
+    }
+
+    /**
+     * Applies up to the given number of queued events, unless another run is already applying them.
+     * Events wait in the queue until the saved raids are loaded, so they reach the restored raids.
+     */
+    private void drain(int limit) {
+        if (!plugin.getDataManager().isLoaded() || !applyLock.tryLock()) return;
+        try {
+            applyQueued(limit);
+            journal.flushIfDue();
+        } finally {
+            applyLock.unlock();
+        }
+    }
+
+    /**
+     * Applies up to the given number of queued events, must hold the apply lock.
+     */
+    private void applyQueued(int limit) {
+        int count = 0;
+        StatEvent event;
+        while (count < limit && (event = queue.poll()) != null) {
+            try {
+                apply(event);
+            } finally {
+                pool.offer(event);
+            }
+            count++;
+        }
+        processed.addAndGet(count);
+    }
+
+    /**
+     * Applies a single event to every raid it belongs to.
+     */
+    private void apply(StatEvent event) {
+        switch (event.getType()) {
+            case DAMAGE:
+                applyDamage(event);
+                break;
+            case KILL:
+                applyKill(event);
+                break;
+            case BLOCK_PLACE:
+                applyBlockPlace(event);
+                break;
+        }
+    }
+
+    private void applyDamage(StatEvent event) {
+        String attackerFaction = factionHandles.idOf(event.getActorFaction());
+        List<RaidStats> raids = statsManager.getRaidsByFactionIds(factionHandles.idOf(event.getTargetFaction()), attackerFaction);
+        if (raids.isEmpty()) return;
+
+        UUID attacker = event.getActor();
+        UUID damaged = event.getTarget();
+        for (RaidStats raid : raids) {
+            if (raid.isGraceAt(event.getTimestamp())) continue;
+
+            boolean isAttackerRaiding = raid.getRaidingFaction().equals(attackerFaction);
+            String attackerSide = isAttackerRaiding ? raid.getRaidingFaction() : raid.getDefendingFaction();
+            String damagedSide = isAttackerRaiding ? raid.getDefendingFaction() : raid.getRaidingFaction();
+
+            raid.addDamageGiven(attackerSide, attacker, event.getDamage());
+            raid.addDamageTaken(damagedSide, damaged, event.getDamage());
+            journal.appendStat(raid, attackerSide, attacker, RaidStatType.DAMAGE_GIVEN, event.getDamage());
+            journal.appendStat(raid, damagedSide, damaged, RaidStatType.DAMAGE_TAKEN, event.getDamage());
+        }
+    }
+
+    private void applyKill(StatEvent event) {
+        String killerFaction = factionHandles.idOf(event.getActorFaction());
+        // Get the list of raids between these factions (Cases for raiding each other or RPost)
+        List<RaidStats> raids = statsManager.getRaidsByFactionIds(factionHandles.idOf(event.getTargetFaction()), killerFaction);
+        if (raids.isEmpty()) return;
+
+        UUID killer = event.getActor();
+        UUID dead = event.getTarget();
+        for (RaidStats raid : raids) {
+            // Skip raids that were already in grace when the kill happened
+            if (raid.isGraceAt(event.getTimestamp())) continue;
+
+            boolean isAttackerRaiding = raid.getRaidingFaction().equals(killerFaction);
+            String killerSide = isAttackerRaiding ? raid.getRaidingFaction() : raid.getDefendingFaction();
+            String deadSide = isAttackerRaiding ? raid.getDefendingFaction() : raid.getRaidingFaction();
+
+            raid.addKill(killerSide, killer, 1);
+            raid.addDeath(deadSide, dead, 1);
+            journal.appendStat(raid, killerSide, killer, RaidStatType.KILLS, 1);
+            journal.appendStat(raid, deadSide, dead, RaidStatType.DEATHS, 1);
+        }
+    }
+
+    private void applyBlockPlace(StatEvent event) {
+        String claimFaction = factionHandles.idOf(event.getTargetFaction());
+        RaidStats raid = statsManager.getRaidDefendingByFacID(claimFaction);
+        if (raid == null || raid.isGraceAt(event.getTimestamp())) return;
+
+        raid.addBlocksPlaced(claimFaction, event.getActor());
+        journal.appendStat(raid, claimFaction, event.getActor(), RaidStatType.BLOCKS_PLACED, 1);
+    }
+
+    /**
+     * Gets the number of events applied since startup.
+     */
+    public long getProcessedCount() {
+        return processed.get();
+    }
+
+    /**
+     * Gets the number of events dropped because the queue was full.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Gets the approximate number of events waiting to be applied.
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+}